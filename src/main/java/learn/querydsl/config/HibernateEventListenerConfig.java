@@ -0,0 +1,80 @@
+package learn.querydsl.config;
+
+import learn.querydsl.index.UsernameGramEventListener;
+import learn.querydsl.outbox.OutboxEventListener;
+import learn.querydsl.repository.TeamIdCache;
+import learn.querydsl.repository.TeamIdCacheEventListener;
+import learn.querydsl.stats.TeamStatsEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/*
+ Hibernate 이벤트 리스너 등록
+ JPA 엔티티 리스너(@PostPersist 등)와 달리 변경 전 상태(old state)를 받을 수 있어서 증분 반영에 사용
+
+ EntityManagerFactory를 주입받아 등록하면 백그라운드 부트스트랩(fast-start 프로필)이 끝날 때까지 기다리게 되므로,
+ Integrator로 등록해서 SessionFactory가 만들어질 때 함께 등록되도록 함
+ */
+@Configuration
+public class HibernateEventListenerConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer eventListenerCustomizer(ObjectProvider<TeamIdCache> teamIdCache) {
+        return properties -> properties.put(
+                EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new EventListenerIntegrator(teamIdCache))
+        );
+    }
+
+    static class EventListenerIntegrator implements Integrator {
+
+        private final ObjectProvider<TeamIdCache> teamIdCache;
+
+        EventListenerIntegrator(ObjectProvider<TeamIdCache> teamIdCache) {
+            this.teamIdCache = teamIdCache;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+
+            TeamStatsEventListener teamStatsListener = new TeamStatsEventListener();
+            registry.appendListeners(EventType.POST_INSERT, teamStatsListener);
+            registry.appendListeners(EventType.POST_UPDATE, teamStatsListener);
+            registry.appendListeners(EventType.POST_DELETE, teamStatsListener);
+
+            UsernameGramEventListener usernameGramListener = new UsernameGramEventListener();
+            registry.appendListeners(EventType.POST_INSERT, usernameGramListener);
+            registry.appendListeners(EventType.POST_UPDATE, usernameGramListener);
+            registry.appendListeners(EventType.POST_DELETE, usernameGramListener);
+
+            OutboxEventListener outboxListener = new OutboxEventListener();
+            registry.appendListeners(EventType.POST_INSERT, outboxListener);
+            registry.appendListeners(EventType.POST_UPDATE, outboxListener);
+            registry.appendListeners(EventType.POST_DELETE, outboxListener);
+
+            TeamIdCacheEventListener teamIdCacheListener = new TeamIdCacheEventListener(teamIdCache);
+            registry.appendListeners(EventType.POST_INSERT, teamIdCacheListener);
+            registry.appendListeners(EventType.POST_UPDATE, teamIdCacheListener);
+            registry.appendListeners(EventType.POST_DELETE, teamIdCacheListener);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+
+    }
+
+}
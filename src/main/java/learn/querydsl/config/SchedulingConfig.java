@@ -0,0 +1,15 @@
+package learn.querydsl.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/*
+ querydsl.scheduling.enabled=false 이면 @Scheduled 작업(OutboxPoller, TeamStatsVerifier)을 실행하지 않음
+ (커넥션 풀 상태처럼 백그라운드 작업이 섞이면 안 되는 테스트용)
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "querydsl.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
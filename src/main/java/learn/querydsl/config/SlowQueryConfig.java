@@ -0,0 +1,17 @@
+package learn.querydsl.config;
+
+import learn.querydsl.monitor.SqlCaptureInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SlowQueryConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlCaptureCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlCaptureInspector());
+    }
+
+}
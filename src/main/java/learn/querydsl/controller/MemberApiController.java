@@ -0,0 +1,53 @@
+package learn.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.querydsl.dto.MemberSearchCond;
+import learn.querydsl.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberApiController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final MemberRepository memberRepository;
+
+    private final ObjectMapper objectMapper;
+
+    /*
+     쿼리 파라미터(username, usernamePrefix, usernameContains, teamName, ageGoe, ageLoe)를 MemberSearchCond에 바인딩
+
+     결과를 List<MemberTeamDto>로 모아서 한 번에 직렬화하지 않고,
+     스크롤 커서로 읽은 로우를 한 줄에 하나씩 NDJSON으로 바로 써서 응답 크기와 상관없이 메모리 사용량이 일정함
+     로우마다 MemberTeamDto를 만들지 않고 컬럼 값을 JsonGenerator에 직접 씀 (MemberTeamJsonWriter)
+
+     If-None-Match가 현재 ETag와 같으면 본문 없이 304 응답
+     */
+    @GetMapping("/api/members")
+    public void searchMembers(MemberSearchCond cond, WebRequest request, HttpServletResponse response) throws IOException {
+        String etag = "W/\"" + memberRepository.searchFingerprint(cond) + "\"";
+        if (request.checkNotModified(etag)) {
+            return;
+        }
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+
+            memberRepository.searchRows(cond, new MemberTeamJsonWriter(generator, FLUSH_INTERVAL));
+        }
+    }
+
+}
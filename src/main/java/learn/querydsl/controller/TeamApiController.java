@@ -0,0 +1,22 @@
+package learn.querydsl.controller;
+
+import learn.querydsl.dto.TeamStatsDto;
+import learn.querydsl.repository.TeamStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamApiController {
+
+    private final TeamStatsRepository teamStatsRepository;
+
+    @GetMapping("/api/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamStatsRepository.findAll();
+    }
+
+}
@@ -0,0 +1,33 @@
+package learn.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ChangeEvent {
+
+    private Long id;
+
+    private String aggregateType;
+
+    private Long aggregateId;
+
+    private String eventType;
+
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    @QueryProjection
+    public ChangeEvent(Long id, String aggregateType, Long aggregateId, String eventType, String payload, LocalDateTime createdAt) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+}
@@ -7,6 +7,10 @@ public class MemberSearchCond {
 
     private String username;
 
+    private String usernamePrefix; // username like 'x%' (대소문자 구분, lower()를 씌우면 username 인덱스를 못 씀)
+
+    private String usernameContains; // username 부분 일치 (대소문자 무시, 소문자 3-gram 색인을 사용하므로 인덱스와 무관)
+
     private String teamName;
 
     private Integer ageGoe;
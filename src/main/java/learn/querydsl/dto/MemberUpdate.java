@@ -0,0 +1,19 @@
+package learn.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ 조건부 수정(updateIfVersion)에서 바꿀 값, null인 필드는 바꾸지 않음
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberUpdate {
+
+    private Integer age;
+
+    private Long teamId;
+
+}
@@ -0,0 +1,31 @@
+package learn.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+
+    private String teamName;
+
+    private long memberCount;
+
+    private Double ageAvg;
+
+    private Integer minAge;
+
+    private Integer maxAge;
+
+    @QueryProjection
+    public TeamStatsDto(Long teamId, String teamName, Long memberCount, Long ageSum, Integer minAge, Integer maxAge) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount != null ? memberCount : 0; // 통계 로우가 아직 없는 팀 (TeamStatsVerifier가 다시 맞추기 전)
+        this.ageAvg = this.memberCount > 0 ? (double) ageSum / this.memberCount : null;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+}
@@ -11,6 +11,7 @@ import javax.persistence.*;
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = @Index(name = "idx_member_username", columnList = "username")) // 동등, 접두사 검색용
 public class Member {
 
     @Id @GeneratedValue
@@ -21,6 +22,9 @@ public class Member {
 
     private int age;
 
+    @Version // 동시 수정 시 나중에 커밋하는 쪽이 실패함 (낙관적 락)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -0,0 +1,50 @@
+package learn.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/*
+ username 부분 일치 검색용 역색인 (username의 3-gram -> member_id)
+ UsernameGramEventListener가 Member 변경에 맞춰 갱신함
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@IdClass(MemberUsernameGram.Key.class)
+@Table(indexes = @Index(name = "idx_member_username_gram", columnList = "gram"))
+public class MemberUsernameGram {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Id
+    @Column(length = 3)
+    private String gram;
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long memberId;
+
+        private String gram;
+
+    }
+
+}
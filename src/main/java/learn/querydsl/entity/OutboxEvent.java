@@ -0,0 +1,46 @@
+package learn.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/*
+ 트랜잭셔널 아웃박스: Member/Team 변경을 같은 트랜잭션 안에서 이벤트 로우로 남김
+ 변경이 롤백되면 이벤트도 함께 롤백되므로 커밋된 변경만 전달됨 (OutboxPoller가 id 순서대로 전달 후 삭제)
+
+ 순서는 같은 aggregate 안에서만 보장됨
+ - id는 커밋이 아니라 삽입 시점에 정해지므로, 동시에 실행된 트랜잭션은 id가 작은 쪽이 나중에 커밋될 수 있음
+   (폴러가 id 11을 전달한 뒤에 id 10이 커밋되어 다음 폴링에서 전달됨, 빠지지는 않음)
+ - 같은 로우를 수정/삭제하는 트랜잭션은 로우 락을 잡은 뒤에 이벤트를 삽입하므로, 뒤의 변경은 앞의 변경이 커밋된 후에
+   더 큰 id를 받음 -> aggregateType + aggregateId 별로는 id 순서 = 커밋 순서
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class OutboxEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) // 같은 aggregate 안에서는 삽입 순서 = 커밋 순서
+    @Column(name = "outbox_event_id")
+    private Long id;
+
+    private String aggregateType; // Member, Team
+
+    private Long aggregateId;
+
+    private String eventType; // CREATED, UPDATED, DELETED
+
+    @Column(length = 2000)
+    private String payload; // 변경 후 상태 (JSON), 삭제는 삭제 직전 상태
+
+    private LocalDateTime createdAt;
+
+}
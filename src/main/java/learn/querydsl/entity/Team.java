@@ -4,6 +4,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -21,11 +22,19 @@ public class Team {
 
     private String name;
 
+    @Version // 동시 수정 시 나중에 커밋하는 쪽이 실패함 (낙관적 락)
+    private Long version;
+
     @OneToMany(mappedBy = "team")
+    @OptimisticLock(excluded = true) // 회원의 팀 이동이 팀 버전을 올려서 서로 충돌하지 않도록 함
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
 
+    public void changeName(String name) {
+        this.name = name;
+    }
+
 }
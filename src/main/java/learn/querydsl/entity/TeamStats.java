@@ -0,0 +1,36 @@
+package learn.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/*
+ 팀별 회원 통계 (집계 결과를 미리 저장해두는 테이블)
+
+ Member 추가/삭제/나이 변경/팀 변경 시 TeamStatsEventListener가 변경분만 반영함
+ 벌크 연산은 영속성 컨텍스트를 건너뛰므로 TeamStatsRepository.rebuild()로 다시 맞춰야 함
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+
+    private long ageSum;
+
+    private Integer minAge;
+
+    private Integer maxAge;
+
+}
@@ -0,0 +1,95 @@
+package learn.querydsl.index;
+
+import learn.querydsl.entity.Member;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.util.Objects;
+import java.util.Set;
+
+/*
+ Member의 username이 바뀔 때 member_username_gram 색인을 같은 트랜잭션 안에서 갱신
+
+ username이 바뀌면 이전 gram을 모두 지우고 새 gram을 배치로 넣음 (gram 차이만 계산하지 않음, username은 짧음)
+ member 로우가 롤백되면 색인도 함께 롤백되므로 검색 결과와 색인이 어긋나지 않음
+ */
+public class UsernameGramEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String INSERT_SQL = "insert into member_username_gram (member_id, gram) values (?, ?)";
+
+    private static final String DELETE_SQL = "delete from member_username_gram where member_id = ?";
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            index(event.getSession(), member.getId(), member.getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+
+        int usernameIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("username");
+        Object oldUsername = event.getOldState() != null ? event.getOldState()[usernameIndex] : null;
+        String newUsername = (String) event.getState()[usernameIndex];
+
+        if (event.getOldState() != null && Objects.equals(oldUsername, newUsername)) {
+            return;
+        }
+
+        Long memberId = (Long) event.getId();
+        unindex(event.getSession(), memberId);
+        index(event.getSession(), memberId, newUsername);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            unindex(event.getSession(), (Long) event.getId());
+        }
+    }
+
+    private void index(EventSource session, Long memberId, String username) {
+        Set<String> grams = UsernameGrams.of(username);
+        if (grams.isEmpty()) {
+            return;
+        }
+
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+                for (String gram : grams) {
+                    ps.setLong(1, memberId);
+                    ps.setString(2, gram);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    private void unindex(EventSource session, Long memberId) {
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(DELETE_SQL)) {
+                ps.setLong(1, memberId);
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+}
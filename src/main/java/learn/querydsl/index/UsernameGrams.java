@@ -0,0 +1,31 @@
+package learn.querydsl.index;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/*
+ username을 소문자 3-gram 집합으로 나눔 ("member" -> mem, emb, mbe, ber)
+ 3글자보다 짧은 문자열은 gram이 없으므로 색인을 쓰지 않고 like로 검색해야 함
+ */
+public final class UsernameGrams {
+
+    public static final int N = 3;
+
+    private UsernameGrams() {
+    }
+
+    public static Set<String> of(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null) {
+            return grams;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + N <= lower.length(); i++) {
+            grams.add(lower.substring(i, i + N));
+        }
+        return grams;
+    }
+
+}
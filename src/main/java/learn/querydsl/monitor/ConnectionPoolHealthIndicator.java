@@ -0,0 +1,77 @@
+package learn.querydsl.monitor;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/*
+ 커넥션 풀 포화 여부 (/actuator/health 의 connectionPool 항목, querydsl.pool.saturated 지표)
+
+ 대기 시간, 활성 커넥션 수 등의 수치 자체는 actuator가 Micrometer 지표로 자동 등록함
+ - hikaricp.connections.active: 사용 중인 커넥션 수
+ - hikaricp.connections.pending: 커넥션을 기다리는 스레드 수
+ - hikaricp.connections.acquire: 커넥션 획득 대기 시간
+ 여기서는 같은 값을 기준으로 포화 여부를 판단해서 querydsl.pool.saturated(1/0) 지표로 내보내고, 알림은 모니터링 시스템에서 이 지표로 설정함
+
+ 포화는 장애가 아니므로 health 상태는 UP으로 두고 details에만 표시함
+ (DOWN 등으로 바꾸면 전체 health와 readiness가 함께 바뀌어서 트래픽이 빠지고 포화가 다른 인스턴스로 옮겨감)
+ */
+@Component
+@Lazy(false) // lazy 초기화(fast-start 프로필)에서도 첫 /actuator/health 호출 전부터 지표가 수집되도록 바로 생성
+public class ConnectionPoolHealthIndicator extends AbstractHealthIndicator {
+
+    private final HikariDataSource dataSource;
+
+    private final double saturationThreshold;
+
+    public ConnectionPoolHealthIndicator(DataSource dataSource,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${querydsl.pool.saturation-threshold:0.9}") double saturationThreshold) throws SQLException {
+        this.dataSource = dataSource.unwrap(HikariDataSource.class);
+        this.saturationThreshold = saturationThreshold;
+
+        Gauge.builder("querydsl.pool.saturated", this, indicator -> indicator.isSaturated() ? 1 : 0)
+                .description("1 when threads are waiting for a connection or pool usage is at or above the threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) { // 첫 커넥션 요청 전에는 풀이 생성되지 않음
+            builder.unknown();
+            return;
+        }
+
+        int active = pool.getActiveConnections();
+        int pending = pool.getThreadsAwaitingConnection();
+        int max = dataSource.getMaximumPoolSize();
+
+        builder.up()
+                .withDetail("active", active)
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("pending", pending)
+                .withDetail("max", max)
+                .withDetail("usage", (double) active / max)
+                .withDetail("saturated", isSaturated(active, pending, max));
+    }
+
+    boolean isSaturated() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null && isSaturated(pool.getActiveConnections(), pool.getThreadsAwaitingConnection(), dataSource.getMaximumPoolSize());
+    }
+
+    private boolean isSaturated(int active, int pending, int max) {
+        return pending > 0 || (double) active / max >= saturationThreshold;
+    }
+
+}
@@ -0,0 +1,38 @@
+package learn.querydsl.monitor;
+
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Predicate;
+
+/*
+ 바인딩 값을 뺀 조건절 모양 (예: member1.username EQ and member1.age BETWEEN), 느린 쿼리 기록용
+
+ 값이 다른 같은 모양의 쿼리는 같은 문자열이 되므로 SlowQueryLog에서 모양별로 묶어서 볼 수 있음
+ */
+public final class PredicateShapes {
+
+    private PredicateShapes() {
+    }
+
+    public static String of(Predicate predicate) {
+        if (predicate == null) {
+            return "";
+        }
+        if (!(predicate instanceof Operation)) {
+            return predicate.getClass().getSimpleName();
+        }
+
+        Operation<?> operation = (Operation<?>) predicate;
+        if (operation.getOperator() == Ops.AND) {
+            return of((Predicate) operation.getArg(0)) + " and " + of((Predicate) operation.getArg(1));
+        }
+        if (operation.getOperator() == Ops.OR) {
+            return "(" + of((Predicate) operation.getArg(0)) + " or " + of((Predicate) operation.getArg(1)) + ")";
+        }
+        if (operation.getOperator() == Ops.NOT) {
+            return "not " + of((Predicate) operation.getArg(0));
+        }
+        return operation.getArg(0) + " " + operation.getOperator();
+    }
+
+}
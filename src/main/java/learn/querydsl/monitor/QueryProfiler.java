@@ -0,0 +1,176 @@
+package learn.querydsl.monitor;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/*
+ QueryDSL 쿼리에 호출 위치를 태그하고, 실행 시간이 임계값을 넘으면 SlowQueryLog에 기록
+
+ use_sql_comments는 JPQL만 주석으로 남기므로 어느 메서드의 어떤 쿼리(컨텐츠/count)인지 알 수 없음
+ -> org.hibernate.comment 힌트로 "호출 위치 [조건절 모양]"을 SQL 주석에 남김
+
+ 실행 계획은 여기서 조회하지 않음 (요청 스레드가 자기 커넥션으로 EXPLAIN까지 실행하면 느린 쿼리가 더 느려짐)
+ -> /actuator/slowqueries를 조회할 때 SlowQueryEndpoint가 계산함
+
+ measureFirstQuery가 켜져 있으면 기동 후 처음 실행된 실제 쿼리의 시간을 한 번 로그로 남김
+ (lazy 초기화, 백그라운드 부트스트랩을 켜면 준비 완료는 빨라지지만 첫 쿼리에서 비용을 치르므로 두 값을 함께 봐야 함)
+ */
+@Slf4j
+@Component
+public class QueryProfiler {
+
+    private final SlowQueryLog slowQueryLog;
+
+    private final long thresholdMs;
+
+    private final AtomicBoolean firstQueryPending;
+
+    private volatile long readyAt;
+
+    public QueryProfiler(SlowQueryLog slowQueryLog,
+                         @Value("${querydsl.slow-query.threshold-ms:500}") long thresholdMs,
+                         @Value("${querydsl.startup.measure-first-query:false}") boolean measureFirstQuery) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdMs = thresholdMs;
+        this.firstQueryPending = new AtomicBoolean(measureFirstQuery);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyAt = System.currentTimeMillis();
+    }
+
+    public <T> List<T> fetch(JPAQuery<T> query, String origin, String shape) {
+        return execute(query, origin, shape, query::fetch);
+    }
+
+    public <T> T fetchOne(JPAQuery<T> query, String origin, String shape) {
+        return execute(query, origin, shape, query::fetchOne);
+    }
+
+    public <R> R execute(JPAQuery<?> query, String origin, String shape, Supplier<R> execution) {
+        query.setHint(QueryHints.COMMENT, origin + " [" + shape + "]");
+        SqlCaptureInspector.clear();
+
+        long start = System.nanoTime();
+        R result = execution.get();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        firstQuery(origin, elapsedMs);
+        if (elapsedMs >= thresholdMs) {
+            record(query, origin, shape, elapsedMs, rows(result));
+        }
+        return result;
+    }
+
+    /*
+     결과를 모으지 않고 스크롤 커서로 한 로우씩 action에 넘김 (트랜잭션 안에서 호출해야 함)
+     action에서 보낸 시간(응답 쓰기 등)은 빼고 쿼리 실행과 로우를 읽는 시간만 측정함
+     */
+    public <T> void forEach(JPAQuery<T> query, String origin, String shape, Consumer<T> action) {
+        query.setHint(QueryHints.COMMENT, origin + " [" + shape + "]");
+        SqlCaptureInspector.clear();
+
+        long start = System.nanoTime();
+        long actionNanos = 0;
+        long rows = 0;
+        try (Stream<T> stream = query.stream()) {
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                long actionStart = System.nanoTime();
+                action.accept(row);
+                actionNanos += System.nanoTime() - actionStart;
+                rows++;
+            }
+        }
+        long elapsedMs = (System.nanoTime() - start - actionNanos) / 1_000_000;
+
+        firstQuery(origin, elapsedMs);
+        if (elapsedMs >= thresholdMs) {
+            record(query, origin, shape, elapsedMs, rows);
+        }
+    }
+
+    // JVM 시작 -> 애플리케이션 준비 완료 -> 첫 쿼리 완료까지 걸린 시간 (한 번만)
+    private void firstQuery(String origin, long elapsedMs) {
+        if (!firstQueryPending.get() || !firstQueryPending.compareAndSet(true, false)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        if (readyAt > 0) {
+            log.info("startup: ready in {}ms, first query {} took {}ms, {}ms after ready (time-to-first-query {}ms)",
+                    readyAt - jvmStart, origin, elapsedMs, now - readyAt, now - jvmStart);
+        } else {
+            log.info("startup: first query {} took {}ms before ready (time-to-first-query {}ms)",
+                    origin, elapsedMs, now - jvmStart);
+        }
+    }
+
+    private void record(JPAQuery<?> query, String origin, String shape, long elapsedMs, long rows) {
+        String sql = SqlCaptureInspector.lastSql();
+        SlowQueryEntry entry = new SlowQueryEntry(
+                Instant.now(), origin, shape, elapsedMs, rows, sql, bindTypes(query.getMetadata()), null
+        );
+
+        log.warn("slow query: {} [{}] {}ms, {} rows", origin, shape, elapsedMs, rows);
+        slowQueryLog.add(entry);
+    }
+
+    private long rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        return result != null ? 1 : 0;
+    }
+
+    private List<String> bindTypes(QueryMetadata metadata) {
+        List<String> types = new ArrayList<>();
+        collectBindTypes(metadata, types);
+        return types;
+    }
+
+    private void collectBindTypes(QueryMetadata metadata, List<String> types) {
+        collectBindTypes(metadata.getWhere(), types);
+        collectBindTypes(metadata.getHaving(), types);
+    }
+
+    private void collectBindTypes(Expression<?> expr, List<String> types) {
+        if (expr instanceof Constant) {
+            Object value = ((Constant<?>) expr).getConstant();
+            types.add(value instanceof Collection
+                    ? "Collection(" + ((Collection<?>) value).size() + ")"
+                    : value.getClass().getSimpleName());
+        } else if (expr instanceof Operation) {
+            for (Expression<?> arg : ((Operation<?>) expr).getArgs()) {
+                collectBindTypes(arg, types);
+            }
+        } else if (expr instanceof SubQueryExpression) {
+            collectBindTypes(((SubQueryExpression<?>) expr).getMetadata(), types);
+        }
+    }
+
+}
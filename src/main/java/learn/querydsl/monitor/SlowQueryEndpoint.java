@@ -0,0 +1,80 @@
+package learn.querydsl.monitor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+ GET /actuator/slowqueries: 최근 느린 쿼리 목록
+ DELETE /actuator/slowqueries: 기록 초기화
+
+ 실행 계획(EXPLAIN)은 느린 쿼리를 실행한 요청이 아니라 여기서 조회할 때 계산함
+ (actuator 요청 스레드가 풀에서 커넥션을 따로 받아서 실행, 같은 SQL은 한 번만 조회)
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean explain;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${querydsl.slow-query.explain:true}") boolean explain) {
+        this.slowQueryLog = slowQueryLog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.explain = explain;
+    }
+
+    @ReadOperation
+    public List<SlowQueryEntry> slowQueries() {
+        List<SlowQueryEntry> recent = slowQueryLog.recent();
+        if (!explain) {
+            return recent;
+        }
+
+        Map<String, String> plans = new HashMap<>();
+        return recent.stream()
+                .map(entry -> entry.getSql() != null ? entry.withPlan(plans.computeIfAbsent(entry.getSql(), this::plan)) : entry)
+                .collect(Collectors.toList());
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+
+    /*
+     실행 계획 조회 (H2 EXPLAIN), 바인딩 값은 알 수 없으므로 null로 채움
+     */
+    private String plan(String sql) {
+        try {
+            List<String> plan = jdbcTemplate.query(
+                    "explain " + sql,
+                    ps -> {
+                        int count = ps.getParameterMetaData().getParameterCount();
+                        for (int i = 1; i <= count; i++) {
+                            ps.setNull(i, Types.NULL);
+                        }
+                    },
+                    (rs, rowNum) -> rs.getString(1)
+            );
+            return String.join("\n", plan);
+        } catch (RuntimeException e) {
+            return "unavailable: " + e.getMessage();
+        }
+    }
+
+}
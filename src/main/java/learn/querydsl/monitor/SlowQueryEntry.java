@@ -0,0 +1,29 @@
+package learn.querydsl.monitor;
+
+import lombok.Value;
+import lombok.With;
+
+import java.time.Instant;
+import java.util.List;
+
+@Value
+public class SlowQueryEntry {
+
+    Instant executedAt;
+
+    String origin; // 쿼리를 만든 repository 메서드 (예: MemberCustomRepositoryImpl.searchWithPaging:count)
+
+    String shape; // 값을 뺀 조건절 모양 (예: member1.username EQ and member1.age BETWEEN)
+
+    long elapsedMs;
+
+    long rows;
+
+    String sql;
+
+    List<String> bindTypes; // 바인딩 값은 남기지 않고 타입만 기록
+
+    @With
+    String plan; // 기록 시에는 null, /actuator/slowqueries 조회 시 채움 (SlowQueryEndpoint)
+
+}
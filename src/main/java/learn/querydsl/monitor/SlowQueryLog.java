@@ -0,0 +1,44 @@
+package learn.querydsl.monitor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/*
+ 최근 느린 쿼리를 최대 capacity 개만 보관하는 링 버퍼 (가득 차면 가장 오래된 기록부터 버림)
+ */
+@Component
+public class SlowQueryLog {
+
+    private final Deque<SlowQueryEntry> entries = new ArrayDeque<>();
+
+    private final int capacity;
+
+    public SlowQueryLog(@Value("${querydsl.slow-query.capacity:100}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized void add(SlowQueryEntry entry) {
+        if (entries.size() == capacity) {
+            entries.removeFirst();
+        }
+        entries.addLast(entry);
+    }
+
+    // 최신 기록부터 반환
+    public synchronized List<SlowQueryEntry> recent() {
+        List<SlowQueryEntry> recent = new ArrayList<>(entries);
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+}
@@ -0,0 +1,27 @@
+package learn.querydsl.monitor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ Hibernate가 실행하는 SQL을 스레드별로 기억해두는 StatementInspector
+ QueryProfiler가 쿼리 실행 후 마지막 SQL을 읽어서 느린 쿼리 기록에 남김 (SQL 자체는 바꾸지 않음)
+ */
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final ThreadLocal<String> LAST_SQL = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LAST_SQL.set(sql);
+        return sql;
+    }
+
+    static String lastSql() {
+        return LAST_SQL.get();
+    }
+
+    static void clear() {
+        LAST_SQL.remove();
+    }
+
+}
@@ -0,0 +1,17 @@
+package learn.querydsl.outbox;
+
+import learn.querydsl.dto.ChangeEvent;
+
+import java.util.List;
+
+/*
+ 변경 이벤트 수신자 (검색 색인, 캐시 등 외부 읽기 모델 갱신)
+ 이벤트는 id 순서대로 배치 단위로 전달되며, 예외를 던지면 배치 전체가 다음 폴링에서 다시 전달됨 (at-least-once)
+ 순서는 같은 aggregate(aggregateType + aggregateId) 안에서만 보장되므로 서로 다른 aggregate의 이벤트 순서에 의존하면 안 됨
+ (OutboxEvent 참고)
+ */
+public interface ChangeEventConsumer {
+
+    void consume(List<ChangeEvent> events);
+
+}
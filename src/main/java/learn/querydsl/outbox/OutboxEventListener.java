@@ -0,0 +1,65 @@
+package learn.querydsl.outbox;
+
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/*
+ Member/Team 변경을 같은 트랜잭션 안에서 outbox_event에 기록
+
+ 엔티티를 저장한 트랜잭션과 함께 커밋/롤백되므로 커밋되지 않은 변경이 발행되거나 커밋된 변경이 빠지지 않음
+ payload는 변경 후 상태 (OutboxEvents.payload), 벌크 연산은 BulkChangeRepository가 로우마다 기록함
+ */
+public class OutboxEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), OutboxEvents.CREATED);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), OutboxEvents.UPDATED);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(event.getSession(), event.getEntity(), event.getId(), OutboxEvents.DELETED);
+    }
+
+    // 추적 대상이 아닌 엔티티는 id가 Long이 아닐 수 있으므로(MemberUsernameGram의 @IdClass 등) 확인 후에 변환
+    private void record(EventSource session, Object entity, Object entityId, String eventType) {
+        if (!OutboxEvents.isTracked(entity)) {
+            return;
+        }
+
+        Long id = (Long) entityId;
+
+        String payload = OutboxEvents.payload(entity);
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(OutboxEvents.INSERT_SQL)) {
+                ps.setString(1, OutboxEvents.aggregateType(entity));
+                ps.setLong(2, id);
+                ps.setString(3, eventType);
+                ps.setString(4, payload);
+                ps.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+}
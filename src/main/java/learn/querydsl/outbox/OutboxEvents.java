@@ -0,0 +1,73 @@
+package learn.querydsl.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ outbox_event 로우 생성 규칙 (이벤트 리스너와 벌크 연산 기록에서 함께 사용)
+ */
+public final class OutboxEvents {
+
+    public static final String INSERT_SQL =
+            "insert into outbox_event (aggregate_type, aggregate_id, event_type, payload, created_at) values (?, ?, ?, ?, ?)";
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OutboxEvents() {
+    }
+
+    public static boolean isTracked(Object entity) {
+        return isTracked(entity.getClass());
+    }
+
+    public static boolean isTracked(Class<?> type) {
+        return Member.class.isAssignableFrom(type) || Team.class.isAssignableFrom(type);
+    }
+
+    public static String aggregateType(Object entity) {
+        return aggregateType(entity.getClass());
+    }
+
+    public static String aggregateType(Class<?> type) {
+        return Member.class.isAssignableFrom(type) ? "Member" : "Team";
+    }
+
+    /*
+     변경 후 상태 (연관 엔티티는 id만, 프록시를 초기화하지 않음)
+     */
+    public static String payload(Object entity) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            payload.put("id", member.getId());
+            payload.put("username", member.getUsername());
+            payload.put("age", member.getAge());
+            payload.put("teamId", member.getTeam() != null ? member.getTeam().getId() : null);
+            payload.put("version", member.getVersion());
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            payload.put("id", team.getId());
+            payload.put("name", team.getName());
+            payload.put("version", team.getVersion());
+        }
+        return toJson(payload);
+    }
+
+    public static String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("failed to serialize outbox payload", e);
+        }
+    }
+
+}
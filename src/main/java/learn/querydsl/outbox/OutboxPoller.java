@@ -0,0 +1,66 @@
+package learn.querydsl.outbox;
+
+import learn.querydsl.dto.ChangeEvent;
+import learn.querydsl.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+ outbox_event를 id 순서대로 batchSize 개씩 읽어서 ChangeEventConsumer들에 전달하고, 전달이 끝난 이벤트는 삭제
+ 수신자가 예외를 던지면 트랜잭션이 롤백되어 이벤트가 남으므로 다음 폴링에서 다시 전달됨
+ (폴러는 인스턴스 하나에서만 실행해야 aggregate 별 순서가 보장됨, 전체 순서는 보장하지 않음 - OutboxEvent 참고)
+
+ 등록된 수신자가 없으면 retention보다 오래된 이벤트를 삭제해서 테이블이 계속 커지지 않도록 함
+ (수신자를 새로 배포하는 동안 쌓인 이벤트는 retention 안에서만 전달됨)
+ */
+@Component
+@Lazy(false) // lazy 초기화(fast-start 프로필)에서도 스케줄 등록을 위해 바로 생성
+public class OutboxPoller {
+
+    private final OutboxRepository outboxRepository;
+
+    private final List<ChangeEventConsumer> consumers;
+
+    private final int batchSize;
+
+    private final Duration retention;
+
+    public OutboxPoller(OutboxRepository outboxRepository,
+                        List<ChangeEventConsumer> consumers, // 등록된 수신자가 없으면 빈 목록
+                        @Value("${querydsl.outbox.batch-size:500}") int batchSize,
+                        @Value("${querydsl.outbox.retention:PT1H}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.consumers = consumers;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${querydsl.outbox.poll-delay-ms:1000}")
+    @Transactional
+    public int poll() {
+        if (consumers.isEmpty()) {
+            outboxRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+            return 0;
+        }
+
+        List<ChangeEvent> events = outboxRepository.findPending(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        for (ChangeEventConsumer consumer : consumers) {
+            consumer.consume(events);
+        }
+        outboxRepository.delete(events.stream().map(ChangeEvent::getId).collect(Collectors.toList()));
+        return events.size();
+    }
+
+}
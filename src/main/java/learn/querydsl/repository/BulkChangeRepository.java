@@ -0,0 +1,203 @@
+package learn.querydsl.repository;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import learn.querydsl.monitor.PredicateShapes;
+import learn.querydsl.monitor.QueryProfiler;
+import learn.querydsl.outbox.OutboxEvents;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static learn.querydsl.entity.QMember.member;
+import static learn.querydsl.entity.QTeam.team;
+
+/*
+ Member/Team 벌크 update/delete
+
+ queryFactory.update/delete를 직접 쓰면 이벤트 리스너를 거치지 않아 버전, team_stats, username 색인, TeamIdCache,
+ outbox_event가 모두 실제 데이터와 어긋남 -> 여기서는 이벤트 리스너가 하던 일을 대상 로우에 대해 직접 함
+
+ 1. 조건에 맞는 로우를 select ... for update 로 읽음 (실행 중에 조건에 새로 맞게 되는 로우가 섞이지 않도록 id로 고정)
+ 2. id in (...) 로 update/delete 하고 버전을 1 올림 (수정 중인 엔티티를 가진 다른 트랜잭션은 낙관적 락 충돌로 실패)
+ 3. 파생 데이터를 다시 맞추고 로우마다 이벤트를 기록 (payload는 이벤트 리스너와 같은 형태)
+
+ 대상 로우를 모두 메모리로 읽으므로 수십만 건 단위라면 조건을 나눠서 호출해야 함
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional
+public class BulkChangeRepository {
+
+    private static final String ORIGIN = "BulkChangeRepository.";
+
+    private final EntityManager em;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final QueryProfiler queryProfiler;
+
+    private final TeamStatsRepository teamStatsRepository;
+
+    private final MemberUsernameGramRepository memberUsernameGramRepository;
+
+    private final TeamIdCache teamIdCache;
+
+    private final OutboxRepository outboxRepository;
+
+    /*
+     values는 필드 -> 상수 값 (member.age.add(1) 같은 식은 지원하지 않음)
+     */
+    public long updateMembers(Map<? extends Path<?>, ?> values, Predicate where) {
+        List<Member> targets = lockMembers(where, "updateMembers");
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = targets.stream().map(Member::getId).collect(Collectors.toList());
+        Set<Long> teamIds = teamIdsOf(targets);
+
+        long rows = queryFactory
+                .update(member)
+                .set(new ArrayList<Path<?>>(values.keySet()), new ArrayList<Object>(values.values()))
+                .set(member.version, member.version.add(1))
+                .where(member.id.in(ids))
+                .execute();
+        em.clear();
+
+        List<Member> updated = queryFactory
+                .selectFrom(member)
+                .where(member.id.in(ids))
+                .orderBy(member.id.asc())
+                .fetch();
+
+        if (values.containsKey(member.age) || values.containsKey(member.team)) {
+            teamIds.addAll(teamIdsOf(updated)); // 옮겨간 팀
+            teamStatsRepository.refresh(teamIds);
+        }
+        if (values.containsKey(member.username)) {
+            memberUsernameGramRepository.reindex(ids);
+        }
+        for (Member updatedMember : updated) {
+            outboxRepository.record(updatedMember, OutboxEvents.UPDATED);
+        }
+        return rows;
+    }
+
+    public long deleteMembers(Predicate where) {
+        List<Member> targets = lockMembers(where, "deleteMembers");
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = targets.stream().map(Member::getId).collect(Collectors.toList());
+        memberUsernameGramRepository.delete(ids);
+        long rows = queryFactory
+                .delete(member)
+                .where(member.id.in(ids))
+                .execute();
+        em.clear();
+
+        teamStatsRepository.refresh(teamIdsOf(targets));
+        for (Member target : targets) {
+            outboxRepository.record(target, OutboxEvents.DELETED); // 삭제 직전 상태
+        }
+        return rows;
+    }
+
+    public long updateTeams(Map<? extends Path<?>, ?> values, Predicate where) {
+        List<Team> targets = lockTeams(where, "updateTeams");
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = targets.stream().map(Team::getId).collect(Collectors.toList());
+        long rows = queryFactory
+                .update(team)
+                .set(new ArrayList<Path<?>>(values.keySet()), new ArrayList<Object>(values.values()))
+                .set(team.version, team.version.add(1))
+                .where(team.id.in(ids))
+                .execute();
+        em.clear();
+        teamIdCache.invalidate();
+
+        List<Team> updated = queryFactory
+                .selectFrom(team)
+                .where(team.id.in(ids))
+                .orderBy(team.id.asc())
+                .fetch();
+        for (Team updatedTeam : updated) {
+            outboxRepository.record(updatedTeam, OutboxEvents.UPDATED);
+        }
+        return rows;
+    }
+
+    /*
+     소속 회원이 남아있는 팀은 FK 때문에 삭제되지 않으므로 회원을 먼저 옮기거나 삭제해야 함
+     */
+    public long deleteTeams(Predicate where) {
+        List<Team> targets = lockTeams(where, "deleteTeams");
+        if (targets.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = targets.stream().map(Team::getId).collect(Collectors.toList());
+        long rows = queryFactory
+                .delete(team)
+                .where(team.id.in(ids))
+                .execute();
+        em.clear();
+        teamIdCache.invalidate();
+
+        teamStatsRepository.refresh(ids); // 팀이 없으므로 통계 로우만 지워짐
+        for (Team target : targets) {
+            outboxRepository.record(target, OutboxEvents.DELETED);
+        }
+        return rows;
+    }
+
+    private List<Member> lockMembers(Predicate where, String method) {
+        em.flush();
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .where(where)
+                .orderBy(member.id.asc()) // 같은 순서로 잠가서 교착 상태를 줄임
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        return queryProfiler.fetch(query, ORIGIN + method, PredicateShapes.of(where));
+    }
+
+    private List<Team> lockTeams(Predicate where, String method) {
+        em.flush();
+        JPAQuery<Team> query = queryFactory
+                .selectFrom(team)
+                .where(where)
+                .orderBy(team.id.asc())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        return queryProfiler.fetch(query, ORIGIN + method, PredicateShapes.of(where));
+    }
+
+    // 프록시를 초기화하지 않고 FK 값만 읽음
+    private Set<Long> teamIdsOf(List<Member> members) {
+        Set<Long> teamIds = new HashSet<>();
+        for (Member target : members) {
+            if (target.getTeam() != null) {
+                teamIds.add(target.getTeam().getId());
+            }
+        }
+        return teamIds;
+    }
+
+}
@@ -2,10 +2,14 @@ package learn.querydsl.repository;
 
 import learn.querydsl.dto.MemberSearchCond;
 import learn.querydsl.dto.MemberTeamDto;
+import learn.querydsl.dto.MemberUpdate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface MemberCustomRepository {
 
@@ -13,4 +17,14 @@ public interface MemberCustomRepository {
 
     Page<MemberTeamDto> searchWithPaging(MemberSearchCond cond, Pageable pageable);
 
+    Map<MemberSearchCond, List<MemberTeamDto>> searchAll(Collection<MemberSearchCond> conds);
+
+    void searchEach(MemberSearchCond cond, Consumer<MemberTeamDto> action);
+
+    void searchRows(MemberSearchCond cond, MemberTeamRowHandler handler);
+
+    String searchFingerprint(MemberSearchCond cond);
+
+    boolean updateIfVersion(Long id, long expectedVersion, MemberUpdate changes);
+
 }
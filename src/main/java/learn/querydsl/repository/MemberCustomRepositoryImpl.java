@@ -1,32 +1,68 @@
 package learn.querydsl.repository;
 
-import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.ArrayConstructorExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import learn.querydsl.dto.MemberSearchCond;
 import learn.querydsl.dto.MemberTeamDto;
+import learn.querydsl.dto.MemberUpdate;
 import learn.querydsl.dto.QMemberTeamDto;
 import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import learn.querydsl.monitor.QueryProfiler;
+import learn.querydsl.outbox.OutboxEvents;
+import learn.querydsl.stats.TeamStatsDeltas;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static learn.querydsl.entity.QMember.member;
 import static learn.querydsl.entity.QTeam.team;
 
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class MemberCustomRepositoryImpl implements MemberCustomRepository {
 
+    private static final String ORIGIN = "MemberCustomRepositoryImpl.";
+
+    private final EntityManager em;
+
     private final JPAQueryFactory queryFactory;
 
+    private final QueryProfiler queryProfiler;
+
+    private final TeamIdCache teamIdCache;
+
+    private final OutboxRepository outboxRepository;
+
     @Override
     public List<MemberTeamDto> search(MemberSearchCond cond) {
-        return queryFactory
+        MemberSearchWhere where = searchWhere(cond);
+        if (where.isAlwaysFalse()) { // 모순 조건이면 쿼리 없이 빈 결과 반환
+            return Collections.emptyList();
+        }
+
+        JPAQuery<MemberTeamDto> query = queryFactory
                 .select(
                         new QMemberTeamDto(
                                 member.id.as("memberId"),
@@ -38,19 +74,20 @@ public class MemberCustomRepositoryImpl implements MemberCustomRepository {
                 )
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(cond.getUsername()),
-                        teamNameEq(cond.getTeamName()),
-                        ageGoe(cond.getAgeGoe()),
-                        ageLoe(cond.getAgeLoe())
-                )
-                .fetch();
+                .where(where.toArray());
+
+        return queryProfiler.fetch(query, ORIGIN + "search", where.shape());
     }
 
     @Override
     public Page<MemberTeamDto> searchWithPaging(MemberSearchCond cond, Pageable pageable) {
+        MemberSearchWhere where = searchWhere(cond);
+        if (where.isAlwaysFalse()) { // 모순 조건이면 컨텐츠, count 쿼리 모두 생략
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+
         // 데이터 조회 쿼리 (페이징 적용)
-        List<MemberTeamDto> content = queryFactory
+        JPAQuery<MemberTeamDto> contentQuery = queryFactory
                 .select(
                         new QMemberTeamDto(
                                 member.id.as("memberId"),
@@ -62,27 +99,20 @@ public class MemberCustomRepositoryImpl implements MemberCustomRepository {
                 )
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(
-                        usernameEq(cond.getUsername()),
-                        teamNameEq(cond.getTeamName()),
-                        ageGoe(cond.getAgeGoe()),
-                        ageLoe(cond.getAgeLoe())
-                )
+                .where(where.toArray())
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize());
+        List<MemberTeamDto> content = queryProfiler.fetch(contentQuery, ORIGIN + "searchWithPaging:content", where.shape());
 
         // count 쿼리 (조건에 부합하는 로우의 총 개수를 얻는 것이기 때문에 페이징 미적용)
+        // 조건절이 team을 참조하지 않으면 (teamName이 팀 id로 바뀐 경우 포함) 조인 없이 member만 셈
         JPAQuery<Long> fetchQuery = queryFactory
                 .select(member.count()) // SQL 상으로는 count(member.id)와 동일
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(cond.getUsername()),
-                        teamNameEq(cond.getTeamName()),
-                        ageGoe(cond.getAgeGoe()),
-                        ageLoe(cond.getAgeLoe())
-                );
+                .from(member);
+        if (where.isTeamJoinRequired()) {
+            fetchQuery.leftJoin(member.team, team);
+        }
+        fetchQuery.where(where.toArray());
 
         /*
          3번째 파라미터: () -> fetchQuery.fetchOne()
@@ -92,23 +122,240 @@ public class MemberCustomRepositoryImpl implements MemberCustomRepository {
          1. 첫 페이지인데, 컨텐츠 사이즈가 페이지 사이즈보다 작을 때 (컨텐츠 사이즈가 곧 total 이므로 따로 구할 필요 없음)
          2. 마지막 페이지일 때 ("offset + 컨텐츠 사이즈"가 곧 total 이므로 따로 구할 필요 없음)
          */
-        return PageableExecutionUtils.getPage(content, pageable, fetchQuery::fetchOne);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> queryProfiler.fetchOne(fetchQuery, ORIGIN + "searchWithPaging:count", where.shape()));
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return username != null ? member.username.eq(username) : null;
+    /*
+     여러 조건의 검색 결과를 한 번에 조회
+
+     teamName만 다르고 나머지 조건이 같은 조건들은 팀 id로 바꿔서 member.team_id in (...) 쿼리 하나로 합치고, 결과는 teamName 기준으로 나눠 담음
+     합칠 수 없는 조건은 같은 트랜잭션(같은 커넥션) 안에서 하나씩 조회
+     (EntityManager는 스레드 간에 공유할 수 없어서 동시 실행하려면 조건마다 커넥션이 하나씩 필요하므로 풀 고갈을 피하기 위해 순차 실행)
+     */
+    @Override
+    public Map<MemberSearchCond, List<MemberTeamDto>> searchAll(Collection<MemberSearchCond> conds) {
+        Map<MemberSearchCond, List<MemberTeamDto>> result = new LinkedHashMap<>();
+        Map<MemberSearchCond, List<MemberSearchCond>> groups = new LinkedHashMap<>(); // teamName을 뺀 조건 -> 합칠 조건들
+
+        for (MemberSearchCond cond : conds) {
+            if (result.containsKey(cond) || MemberSearchWhere.of(cond).isAlwaysFalse()) {
+                result.putIfAbsent(cond, Collections.emptyList());
+                continue;
+            }
+            if (cond.getTeamName() == null) {
+                result.put(cond, search(cond));
+                continue;
+            }
+            groups.computeIfAbsent(withoutTeamName(cond), key -> new ArrayList<>()).add(cond);
+        }
+
+        groups.forEach((base, grouped) -> {
+            if (grouped.size() == 1) {
+                result.put(grouped.get(0), search(grouped.get(0)));
+                return;
+            }
+
+            List<Long> teamIds = grouped.stream()
+                    .map(MemberSearchCond::getTeamName)
+                    .distinct()
+                    .flatMap(teamName -> teamIdCache.resolve(teamName).stream())
+                    .collect(Collectors.toList());
+            if (teamIds.isEmpty()) { // 존재하는 팀이 하나도 없음
+                grouped.forEach(cond -> result.put(cond, Collections.emptyList()));
+                return;
+            }
+
+            MemberSearchWhere baseWhere = MemberSearchWhere.of(base);
+            JPAQuery<MemberTeamDto> query = queryFactory
+                    .select(
+                            new QMemberTeamDto(
+                                    member.id.as("memberId"),
+                                    member.username,
+                                    member.age,
+                                    team.id.as("teamId"),
+                                    team.name.as("teamName")
+                            )
+                    )
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(baseWhere.toArray())
+                    .where(member.team.id.in(teamIds));
+
+            Map<String, List<MemberTeamDto>> byTeamName = queryProfiler
+                    .fetch(query, ORIGIN + "searchAll:merged", baseWhere.shape() + " and member1.team.id IN")
+                    .stream()
+                    .collect(Collectors.groupingBy(MemberTeamDto::getTeamName));
+
+            for (MemberSearchCond cond : grouped) {
+                result.put(cond, byTeamName.getOrDefault(cond.getTeamName(), Collections.emptyList()));
+            }
+        });
+
+        return result;
+    }
+
+    private MemberSearchWhere searchWhere(MemberSearchCond cond) {
+        List<Long> teamIds = cond.getTeamName() != null ? teamIdCache.resolve(cond.getTeamName()) : null;
+        return MemberSearchWhere.of(cond, teamIds);
+    }
+
+    private MemberSearchCond withoutTeamName(MemberSearchCond cond) {
+        MemberSearchCond base = new MemberSearchCond();
+        base.setUsername(cond.getUsername());
+        base.setUsernamePrefix(cond.getUsernamePrefix());
+        base.setUsernameContains(cond.getUsernameContains());
+        base.setAgeGoe(cond.getAgeGoe());
+        base.setAgeLoe(cond.getAgeLoe());
+        return base;
+    }
+
+    /*
+     결과를 List로 모으지 않고 스크롤 커서로 한 로우씩 읽어서 action에 넘김 (대용량 응답 스트리밍용)
+     커서는 커넥션을 점유하므로 트랜잭션 안에서 모두 소비함
+     */
+    @Override
+    public void searchEach(MemberSearchCond cond, Consumer<MemberTeamDto> action) {
+        MemberSearchWhere where = searchWhere(cond);
+        if (where.isAlwaysFalse()) {
+            return;
+        }
+
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(
+                        new QMemberTeamDto(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")
+                        )
+                )
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where.toArray())
+                .setHint(QueryHints.FETCH_SIZE, MemberReadRepository.FETCH_SIZE);
+
+        queryProfiler.forEach(query, ORIGIN + "searchEach", where.shape(), action);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return teamName != null ? team.name.eq(teamName) : null;
+    /*
+     searchEach와 같은 결과를 DTO 없이 컬럼 값 그대로 handler에 넘김 (JSON 응답을 직접 쓰는 경우)
+
+     Object[] 배열 프로젝션은 Hibernate가 만든 로우 배열을 그대로 반환하므로
+     로우마다 생기는 객체는 Hibernate의 Object[] 하나뿐 (MemberTeamDto, Tuple 생성 없음)
+     */
+    @Override
+    public void searchRows(MemberSearchCond cond, MemberTeamRowHandler handler) {
+        MemberSearchWhere where = searchWhere(cond);
+        if (where.isAlwaysFalse()) {
+            return;
+        }
+
+        ArrayConstructorExpression<Object> row = new ArrayConstructorExpression<>(
+                member.id,
+                member.username,
+                member.age,
+                team.id,
+                team.name
+        );
+
+        JPAQuery<Object[]> query = queryFactory
+                .select(row)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where.toArray())
+                .setHint(QueryHints.FETCH_SIZE, MemberReadRepository.FETCH_SIZE);
+
+        queryProfiler.forEach(query, ORIGIN + "searchRows", where.shape(),
+                r -> handler.handle((Long) r[0], (String) r[1], (Integer) r[2], (Long) r[3], (String) r[4]));
     }
 
-    private Predicate ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    /*
+     검색 결과가 바뀌었는지 판단하기 위한 값 (조건에 부합하는 로우의 개수, 최대 id, 나이 합계, 회원 버전 합계, 팀 버전 합계)
+     결과 전체를 읽지 않고 집계 쿼리 한 번으로 ETag를 만들 수 있음
+
+     결과에 팀 이름도 포함되므로 팀 버전도 함께 집계함 (팀 이름이 바뀌면 ETag도 바뀜)
+     엔티티 변경(@Version 증가)과 버전을 올리는 벌크 연산(updateIfVersion)만 반영됨
+     버전을 올리지 않는 벌크 연산(queryFactory.update)으로 username 등을 바꾸면 ETag가 바뀌지 않으므로,
+     그런 벌크 연산은 member.version(팀은 team.version)도 함께 올려야 함
+     */
+    @Override
+    public String searchFingerprint(MemberSearchCond cond) {
+        MemberSearchWhere where = searchWhere(cond);
+        if (where.isAlwaysFalse()) {
+            return "empty";
+        }
+
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.count(), member.id.max(), member.age.sum(), member.version.sum(), team.version.sum())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(where.toArray());
+        Tuple tuple = queryProfiler.fetchOne(query, ORIGIN + "searchFingerprint", where.shape());
+
+        return Arrays.stream(tuple.toArray())
+                .map(String::valueOf)
+                .collect(Collectors.joining("-"));
     }
 
-    private Predicate ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    /*
+     버전이 expectedVersion 일 때만 수정하고 버전을 1 올림 (update ... where id = ? and version = ?)
+     다른 트랜잭션이 먼저 수정했다면 수정된 로우가 0개이므로 false 반환 -> 호출 측에서 다시 읽고 재시도
+     회원이 없으면 재시도해도 소용없으므로 충돌(false)과 구분해서 EmptyResultDataAccessException
+
+     비관적 락(select ... for update)과 달리 읽는 동안 로우를 잠그지 않으므로 경합이 적을 때 처리량이 높음
+     벌크 연산이므로 영속성 컨텍스트를 비우고, 이벤트 리스너를 거치지 않는 팀 통계와 변경 이벤트는 직접 반영함
+     (팀 통계는 미리 읽은 나이/팀으로 변경분만 반영, 팀 전체를 다시 집계하지 않음)
+     */
+    @Override
+    @Transactional
+    public boolean updateIfVersion(Long id, long expectedVersion, MemberUpdate changes) {
+        JPAQuery<Tuple> currentQuery = queryFactory
+                .select(member.version, member.age, member.team.id)
+                .from(member)
+                .where(member.id.eq(id));
+        Tuple current = queryProfiler.fetchOne(currentQuery, ORIGIN + "updateIfVersion", "member1.id EQ");
+        if (current == null) {
+            throw new EmptyResultDataAccessException("member not found: " + id, 1);
+        }
+        if (!Objects.equals(current.get(member.version), expectedVersion)) {
+            return false;
+        }
+
+        JPAUpdateClause update = queryFactory
+                .update(member)
+                .set(member.version, member.version.add(1))
+                .where(
+                        member.id.eq(id),
+                        member.version.eq(expectedVersion)
+                );
+        if (changes.getAge() != null) {
+            update.set(member.age, changes.getAge());
+        }
+        if (changes.getTeamId() != null) {
+            update.set(member.team, em.getReference(Team.class, changes.getTeamId()));
+        }
+
+        em.flush();
+        boolean updated = update.execute() == 1;
+        em.clear();
+
+        if (updated) {
+            // 버전 조건으로 수정에 성공했으므로 미리 읽은 값이 수정 직전 상태임
+            int oldAge = current.get(member.age);
+            Long oldTeamId = current.get(member.team.id);
+            int newAge = changes.getAge() != null ? changes.getAge() : oldAge;
+            Long newTeamId = changes.getTeamId() != null ? changes.getTeamId() : oldTeamId;
+            if (oldAge != newAge || !Objects.equals(oldTeamId, newTeamId)) {
+                em.unwrap(Session.class).doWork(connection -> {
+                    TeamStatsDeltas.leave(connection, oldTeamId, oldAge);
+                    TeamStatsDeltas.join(connection, newTeamId, newAge);
+                });
+            }
+            outboxRepository.record(em.find(Member.class, id), OutboxEvents.UPDATED);
+        }
+        return updated;
     }
 
 }
@@ -0,0 +1,62 @@
+package learn.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.entity.Member;
+import learn.querydsl.monitor.PredicateShapes;
+import learn.querydsl.monitor.QueryProfiler;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static learn.querydsl.entity.QMember.member;
+
+/*
+ 조회 전용 엔티티 조회 repository
+
+ selectFrom(member), findAll(Predicate)로 조회한 엔티티는 영속성 컨텍스트가 변경 감지를 위해 스냅샷을 함께 보관함
+ -> 수정하지 않을 엔티티라면 스냅샷은 메모리 낭비 (로우 당 힙 사용량이 약 2배)
+
+ org.hibernate.readOnly 힌트를 주면 읽기 전용 엔티티로 로딩되어 스냅샷을 만들지 않고, flush 시 변경 감지 대상에서도 제외됨
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberReadRepository {
+
+    static final int FETCH_SIZE = 500;
+
+    private static final String ORIGIN = "MemberReadRepository.";
+
+    private final JPAQueryFactory queryFactory;
+
+    private final QueryProfiler queryProfiler;
+
+    public List<Member> findAll() {
+        return queryProfiler.fetch(readOnly(queryFactory.selectFrom(member)), ORIGIN + "findAll", "");
+    }
+
+    public List<Member> findAll(Predicate predicate) {
+        JPAQuery<Member> query = readOnly(
+                queryFactory
+                        .selectFrom(member)
+                        .where(predicate)
+        );
+        return queryProfiler.fetch(query, ORIGIN + "findAll", PredicateShapes.of(predicate));
+    }
+
+    /*
+     cacheable 힌트는 2차 캐시의 쿼리 캐시(hibernate.cache.use_query_cache)가 켜져 있을 때만 적용되고, 꺼져 있으면 무시됨
+     */
+    static <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        return query
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.FETCH_SIZE, FETCH_SIZE)
+                .setHint(QueryHints.CACHEABLE, true);
+    }
+
+}
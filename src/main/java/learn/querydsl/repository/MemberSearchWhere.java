@@ -0,0 +1,158 @@
+package learn.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPAExpressions;
+import learn.querydsl.dto.MemberSearchCond;
+import learn.querydsl.index.UsernameGrams;
+import learn.querydsl.monitor.PredicateShapes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static learn.querydsl.entity.QMember.member;
+import static learn.querydsl.entity.QMemberUsernameGram.memberUsernameGram;
+import static learn.querydsl.entity.QTeam.team;
+
+/*
+ MemberSearchCond를 where 조건절로 변환하기 전에 정규화하는 단계
+
+ 1. 나이 범위 접기: ageGoe == ageLoe 이면 age = ?, 둘 다 있으면 between 하나로 합침
+ 2. 모순 조건 감지: ageGoe > ageLoe 이면 결과가 항상 비어있으므로 쿼리를 날리지 않음 (isAlwaysFalse)
+ 3. 선택도 순 정렬: 결과를 많이 걸러내는 조건을 앞에 둠 (username -> age 동등 -> username 접두사/부분 일치 -> 팀 -> age 범위)
+ 4. 팀 이름 -> 팀 id: teamName을 미리 조회한 팀 id로 바꾸면 member.team_id만 비교하므로 team 조인이 필요 없음
+    (member 테이블이 team_id로 파티셔닝되어 있으면 해당 파티션만 읽음), 존재하지 않는 팀이면 결과가 항상 비어있음
+ */
+class MemberSearchWhere {
+
+    private final List<Predicate> conjuncts;
+
+    private final boolean alwaysFalse;
+
+    private final boolean teamJoinRequired;
+
+    private MemberSearchWhere(List<Predicate> conjuncts, boolean alwaysFalse, boolean teamJoinRequired) {
+        this.conjuncts = conjuncts;
+        this.alwaysFalse = alwaysFalse;
+        this.teamJoinRequired = teamJoinRequired;
+    }
+
+    static MemberSearchWhere of(MemberSearchCond cond) {
+        return of(cond, null);
+    }
+
+    /*
+     teamIds: teamName에 해당하는 팀 id 목록 (null 이면 team.name으로 비교)
+     */
+    static MemberSearchWhere of(MemberSearchCond cond, List<Long> teamIds) {
+        Integer ageGoe = cond.getAgeGoe();
+        Integer ageLoe = cond.getAgeLoe();
+
+        if (ageGoe != null && ageLoe != null && ageGoe > ageLoe) {
+            return new MemberSearchWhere(List.of(), true, false);
+        }
+
+        if (cond.getTeamName() != null && teamIds != null && teamIds.isEmpty()) {
+            return new MemberSearchWhere(List.of(), true, false);
+        }
+
+        List<Predicate> conjuncts = new ArrayList<>();
+
+        if (cond.getUsername() != null) {
+            conjuncts.add(member.username.eq(cond.getUsername()));
+        }
+
+        boolean ageFolded = ageGoe != null && ageGoe.equals(ageLoe);
+        if (ageFolded) {
+            conjuncts.add(member.age.eq(ageGoe));
+        }
+
+        if (cond.getUsernamePrefix() != null) {
+            conjuncts.add(member.username.startsWith(cond.getUsernamePrefix())); // 'x%'는 B-tree 인덱스 사용 가능
+        }
+
+        if (cond.getUsernameContains() != null) {
+            conjuncts.addAll(usernameContains(cond.getUsernameContains()));
+        }
+
+        boolean teamJoinRequired = false;
+        if (cond.getTeamName() != null) {
+            if (teamIds == null) {
+                conjuncts.add(team.name.eq(cond.getTeamName()));
+                teamJoinRequired = true;
+            } else if (teamIds.size() == 1) {
+                conjuncts.add(member.team.id.eq(teamIds.get(0)));
+            } else {
+                conjuncts.add(member.team.id.in(teamIds));
+            }
+        }
+
+        if (!ageFolded) {
+            if (ageGoe != null && ageLoe != null) {
+                conjuncts.add(member.age.between(ageGoe, ageLoe));
+            } else if (ageGoe != null) {
+                conjuncts.add(member.age.goe(ageGoe));
+            } else if (ageLoe != null) {
+                conjuncts.add(member.age.loe(ageLoe));
+            }
+        }
+
+        return new MemberSearchWhere(conjuncts, false, teamJoinRequired);
+    }
+
+    /*
+     like '%x%'는 인덱스를 쓸 수 없어서 member 전체를 스캔함
+     -> 검색어의 3-gram을 모두 가진 member_id를 색인에서 먼저 찾고 (member.id in 서브쿼리), 후보만 like로 확인
+     검색어가 3글자보다 짧으면 gram이 없으므로 like만 사용
+     */
+    private static List<Predicate> usernameContains(String text) {
+        Set<String> grams = UsernameGrams.of(text);
+        if (grams.isEmpty()) {
+            return List.of(member.username.containsIgnoreCase(text));
+        }
+
+        return List.of(
+                member.id.in(
+                        JPAExpressions
+                                .select(memberUsernameGram.memberId)
+                                .from(memberUsernameGram)
+                                .where(memberUsernameGram.gram.in(grams))
+                                .groupBy(memberUsernameGram.memberId)
+                                .having(memberUsernameGram.gram.count().eq((long) grams.size()))
+                ),
+                member.username.containsIgnoreCase(text) // gram을 모두 가져도 순서가 다를 수 있으므로 최종 확인
+        );
+    }
+
+    /*
+     true 이면 어떤 로우도 조건을 만족할 수 없으므로, 호출 측은 DB 왕복 없이 빈 결과를 반환해야 함
+     */
+    boolean isAlwaysFalse() {
+        return alwaysFalse;
+    }
+
+    /*
+     false 이면 조건절이 team을 참조하지 않으므로 count 쿼리 등에서 team 조인을 생략할 수 있음
+     */
+    boolean isTeamJoinRequired() {
+        return teamJoinRequired;
+    }
+
+    Predicate[] toArray() {
+        return conjuncts.toArray(new Predicate[0]);
+    }
+
+    /*
+     바인딩 값을 뺀 조건절 모양 (예: member1.username EQ and member1.age BETWEEN), 느린 쿼리 기록용
+     */
+    String shape() {
+        if (alwaysFalse) {
+            return "always false";
+        }
+        return conjuncts.stream()
+                .map(PredicateShapes::of)
+                .collect(Collectors.joining(" and "));
+    }
+
+}
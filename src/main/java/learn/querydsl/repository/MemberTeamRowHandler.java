@@ -0,0 +1,11 @@
+package learn.querydsl.repository;
+
+/*
+ 검색 결과 한 로우의 컬럼 값을 DTO나 Tuple로 감싸지 않고 그대로 받음 (MemberCustomRepository.searchRows)
+ */
+@FunctionalInterface
+public interface MemberTeamRowHandler {
+
+    void handle(Long memberId, String username, int age, Long teamId, String teamName);
+
+}
@@ -0,0 +1,106 @@
+package learn.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.index.UsernameGrams;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+
+import static learn.querydsl.entity.QMember.member;
+
+@Repository
+@RequiredArgsConstructor
+public class MemberUsernameGramRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final EntityManager em;
+
+    private final JPAQueryFactory queryFactory;
+
+    /*
+     member 테이블 전체로 username 색인을 다시 만듦
+     벌크 연산이나 직접 적재한 데이터는 이벤트 리스너를 거치지 않으므로 적재 후에 호출해야 함
+     */
+    @Transactional
+    public void rebuild() {
+        em.flush();
+        em.unwrap(Session.class).doWork(connection -> {
+            try (Statement delete = connection.createStatement()) {
+                delete.executeUpdate("delete from member_username_gram");
+            }
+
+            try (Statement select = connection.createStatement();
+                 ResultSet rs = select.executeQuery("select member_id, username from member");
+                 PreparedStatement insert = connection.prepareStatement("insert into member_username_gram (member_id, gram) values (?, ?)")) {
+                int pending = 0;
+                while (rs.next()) {
+                    long memberId = rs.getLong(1);
+                    for (String gram : UsernameGrams.of(rs.getString(2))) {
+                        insert.setLong(1, memberId);
+                        insert.setString(2, gram);
+                        insert.addBatch();
+                        if (++pending % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    /*
+     지정한 회원들의 색인만 다시 만듦 (벌크 연산으로 username이 바뀐 회원이 일부일 때)
+     */
+    @Transactional
+    public void reindex(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+
+        delete(memberIds);
+        List<Tuple> members = queryFactory
+                .select(member.id, member.username)
+                .from(member)
+                .where(member.id.in(memberIds))
+                .fetch();
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement("insert into member_username_gram (member_id, gram) values (?, ?)")) {
+                int pending = 0;
+                for (Tuple tuple : members) {
+                    for (String gram : UsernameGrams.of(tuple.get(member.username))) {
+                        insert.setLong(1, tuple.get(member.id));
+                        insert.setString(2, gram);
+                        insert.addBatch();
+                        if (++pending % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    @Transactional
+    public void delete(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+
+        em.createNativeQuery("delete from member_username_gram where member_id in (:memberIds)")
+                .setParameter("memberIds", memberIds)
+                .executeUpdate();
+    }
+
+}
@@ -0,0 +1,96 @@
+package learn.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.dto.ChangeEvent;
+import learn.querydsl.dto.QChangeEvent;
+import learn.querydsl.monitor.QueryProfiler;
+import learn.querydsl.outbox.OutboxEvents;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static learn.querydsl.entity.QOutboxEvent.outboxEvent;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class OutboxRepository {
+
+    private static final String ORIGIN = "OutboxRepository.";
+
+    private final EntityManager em;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final QueryProfiler queryProfiler;
+
+    public List<ChangeEvent> findPending(int limit) {
+        JPAQuery<ChangeEvent> query = queryFactory
+                .select(
+                        new QChangeEvent(
+                                outboxEvent.id,
+                                outboxEvent.aggregateType,
+                                outboxEvent.aggregateId,
+                                outboxEvent.eventType,
+                                outboxEvent.payload,
+                                outboxEvent.createdAt
+                        )
+                )
+                .from(outboxEvent)
+                .orderBy(outboxEvent.id.asc())
+                .limit(limit);
+        return queryProfiler.fetch(query, ORIGIN + "findPending", "");
+    }
+
+    @Transactional
+    public long delete(Collection<Long> ids) {
+        return queryFactory
+                .delete(outboxEvent)
+                .where(outboxEvent.id.in(ids))
+                .execute();
+    }
+
+    /*
+     이벤트 리스너를 거치지 않는 변경(벌크 연산 등)을 직접 기록 (BulkChangeRepository, updateIfVersion)
+     */
+    @Transactional
+    public void record(Object entity, String eventType) {
+        Long id = (Long) em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+        insert(OutboxEvents.aggregateType(entity), id, eventType, OutboxEvents.payload(entity));
+    }
+
+    /*
+     전달할 수신자가 없을 때 오래된 이벤트 정리 (OutboxPoller)
+     */
+    @Transactional
+    public long deleteCreatedBefore(LocalDateTime cutoff) {
+        return queryFactory
+                .delete(outboxEvent)
+                .where(outboxEvent.createdAt.lt(cutoff))
+                .execute();
+    }
+
+    private void insert(String aggregateType, Long aggregateId, String eventType, String payload) {
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(OutboxEvents.INSERT_SQL)) {
+                ps.setString(1, aggregateType);
+                ps.setObject(2, aggregateId, Types.BIGINT);
+                ps.setString(3, eventType);
+                ps.setString(4, payload);
+                ps.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                ps.executeUpdate();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,138 @@
+package learn.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.monitor.QueryProfiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static learn.querydsl.entity.QTeam.team;
+
+/*
+ 팀 이름 -> 팀 id 캐시
+
+ teamName 조건을 team.name = ? (team 조인 필요) 대신 member.team_id = ? 로 바꾸기 위해 사용
+ member 테이블이 team_id로 파티셔닝되어 있으면 DB가 해당 파티션만 읽고, count 쿼리는 조인 없이 실행됨
+ (파티셔닝은 PostgreSQL용 db/member-partition-postgresql.sql 기준, H2는 파티셔닝을 지원하지 않으므로
+  테스트/로컬에서는 team 조인이 빠지는 효과만 있고 파티션 프루닝은 확인할 수 없음)
+
+ 이름이 같은 팀이 여럿일 수 있으므로 id 목록으로 보관
+ 존재하지 않는 이름은 곧 생성될 수 있으므로 캐시하지 않음
+
+ 팀이 추가/수정/삭제되면 TeamIdCacheEventListener가 invalidate()를 호출함
+ - 변경한 트랜잭션 안에서는 커밋되지 않은 팀이 보이므로 캐시를 읽지도 채우지도 않음
+ - 트랜잭션이 끝나면(커밋, 롤백 모두) 세대(generation)를 올리고 비움
+ - 세대가 오르기 전에 이전 상태를 읽은 조회가 나중에 넣은 값은 세대가 달라서 사용되지 않음
+
+ 이 인스턴스의 이벤트 리스너를 거치지 않은 팀 변경(다른 인스턴스, 직접 실행한 SQL)은 알 수 없으므로
+ 항목은 ttl(querydsl.team-id-cache.ttl)이 지나면 만료됨 -> 그런 변경은 최대 ttl 동안만 이전 팀 id로 조회됨
+ 같은 인스턴스의 벌크 연산은 BulkChangeRepository가 invalidate()를 호출함
+ */
+@Component
+public class TeamIdCache {
+
+    private final JPAQueryFactory queryFactory;
+
+    private final QueryProfiler queryProfiler;
+
+    private final long ttlNanos;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    // 현재 트랜잭션에 반영 대기 중인 팀 변경이 있는지 표시하는 트랜잭션 리소스 키
+    private final Object pendingWritesKey = new Object();
+
+    public TeamIdCache(JPAQueryFactory queryFactory,
+                       QueryProfiler queryProfiler,
+                       @Value("${querydsl.team-id-cache.ttl:PT1M}") Duration ttl) {
+        this.queryFactory = queryFactory;
+        this.queryProfiler = queryProfiler;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public List<Long> resolve(String teamName) {
+        if (hasPendingWrites()) {
+            return query(teamName);
+        }
+
+        long current = generation.get();
+        Entry cached = cache.get(teamName);
+        if (cached != null && cached.generation == current && System.nanoTime() - cached.loadedAt < ttlNanos) {
+            return cached.teamIds;
+        }
+
+        List<Long> teamIds = query(teamName);
+        // 조회 중 auto flush로 팀 변경이 반영됐으면 커밋되지 않은 결과이므로 넣지 않음
+        if (!teamIds.isEmpty() && !hasPendingWrites()) {
+            cache.put(teamName, new Entry(current, System.nanoTime(), List.copyOf(teamIds)));
+        }
+        return teamIds;
+    }
+
+    /*
+     팀 변경이 DB에 반영될 때 호출 (flush 도중)
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear();
+            return;
+        }
+        if (hasPendingWrites()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(pendingWritesKey, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(pendingWritesKey);
+                clear();
+            }
+        });
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private boolean hasPendingWrites() {
+        return TransactionSynchronizationManager.hasResource(pendingWritesKey);
+    }
+
+    private List<Long> query(String teamName) {
+        JPAQuery<Long> query = queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .orderBy(team.id.asc());
+        return queryProfiler.fetch(query, "TeamIdCache.resolve", "team.name EQ");
+    }
+
+    private static class Entry {
+
+        final long generation;
+
+        final long loadedAt; // System.nanoTime()
+
+        final List<Long> teamIds;
+
+        Entry(long generation, long loadedAt, List<Long> teamIds) {
+            this.generation = generation;
+            this.loadedAt = loadedAt;
+            this.teamIds = teamIds;
+        }
+
+    }
+
+}
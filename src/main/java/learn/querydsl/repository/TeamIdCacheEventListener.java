@@ -0,0 +1,53 @@
+package learn.querydsl.repository;
+
+import learn.querydsl.entity.Team;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+
+/*
+ Team이 추가/수정/삭제되면 TeamIdCache를 무효화
+
+ EntityManagerFactory를 만드는 도중에 등록되므로 TeamIdCache(-> JPAQueryFactory -> EntityManager)를
+ 바로 주입받지 않고, 이벤트가 발생할 때 ObjectProvider로 꺼냄
+ */
+public class TeamIdCacheEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final ObjectProvider<TeamIdCache> teamIdCache;
+
+    public TeamIdCacheEventListener(ObjectProvider<TeamIdCache> teamIdCache) {
+        this.teamIdCache = teamIdCache;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    private void invalidate(Object entity) {
+        if (entity instanceof Team) {
+            teamIdCache.ifAvailable(TeamIdCache::invalidate);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+}
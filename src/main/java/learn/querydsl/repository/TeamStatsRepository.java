@@ -0,0 +1,139 @@
+package learn.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.dto.QTeamStatsDto;
+import learn.querydsl.dto.TeamStatsDto;
+import learn.querydsl.monitor.QueryProfiler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static learn.querydsl.entity.QMember.member;
+import static learn.querydsl.entity.QTeam.team;
+import static learn.querydsl.entity.QTeamStats.teamStats;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class TeamStatsRepository {
+
+    private static final String ORIGIN = "TeamStatsRepository.";
+
+    private final EntityManager em;
+
+    private final JPAQueryFactory queryFactory;
+
+    private final QueryProfiler queryProfiler;
+
+    /*
+     member 전체를 groupBy 하지 않고 팀 수만큼의 로우만 읽음
+     */
+    public List<TeamStatsDto> findAll() {
+        JPAQuery<TeamStatsDto> query = queryFactory
+                .select(
+                        new QTeamStatsDto(
+                                team.id,
+                                team.name,
+                                teamStats.memberCount,
+                                teamStats.ageSum,
+                                teamStats.minAge,
+                                teamStats.maxAge
+                        )
+                )
+                .from(team)
+                .leftJoin(teamStats).on(teamStats.teamId.eq(team.id))
+                .orderBy(team.name.asc());
+        return queryProfiler.fetch(query, ORIGIN + "findAll", "");
+    }
+
+    /*
+     member 테이블을 다시 집계해서 team_stats 전체를 덮어씀
+     벌크 연산(queryFactory.update/delete)은 이벤트 리스너를 거치지 않으므로 벌크 연산 후에 호출해야 함
+     회원이 없는 팀도 빈 통계 로우를 가짐 (TeamStatsEventListener는 회원 추가 시 update만 함)
+     */
+    @Transactional
+    public void rebuild() {
+        em.flush();
+        em.createNativeQuery("delete from team_stats").executeUpdate();
+        em.createNativeQuery(
+                "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) " +
+                "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age) " +
+                "from team t left join member m on m.team_id = t.team_id group by t.team_id"
+        ).executeUpdate();
+    }
+
+    /*
+     지정한 팀들의 통계만 다시 집계 (벌크 연산으로 바뀐 팀이 몇 개뿐일 때)
+     */
+    @Transactional
+    public void refresh(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+
+        em.createNativeQuery("delete from team_stats where team_id in (:teamIds)")
+                .setParameter("teamIds", teamIds)
+                .executeUpdate();
+        em.createNativeQuery(
+                "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) " +
+                "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age) " +
+                "from team t left join member m on m.team_id = t.team_id " +
+                "where t.team_id in (:teamIds) group by t.team_id"
+        ).setParameter("teamIds", teamIds).executeUpdate();
+    }
+
+    /*
+     저장된 통계와 실제 집계 결과가 다른 팀의 id 목록
+     */
+    public Set<Long> findDrift() {
+        JPAQuery<Tuple> actualQuery = queryFactory
+                .select(member.team.id, member.count(), member.age.sum(), member.age.min(), member.age.max())
+                .from(member)
+                .where(member.team.isNotNull())
+                .groupBy(member.team.id);
+        List<Tuple> actual = queryProfiler.fetch(actualQuery, ORIGIN + "findDrift:actual", "member1.team IS_NOT_NULL");
+
+        JPAQuery<Tuple> storedQuery = queryFactory
+                .select(teamStats.teamId, teamStats.memberCount, teamStats.ageSum, teamStats.minAge, teamStats.maxAge)
+                .from(teamStats)
+                .where(teamStats.memberCount.gt(0));
+        Map<Long, List<Long>> stored = new HashMap<>();
+        for (Tuple tuple : queryProfiler.fetch(storedQuery, ORIGIN + "findDrift:stored", "teamStats.memberCount GT")) {
+            stored.put(tuple.get(teamStats.teamId), values(tuple));
+        }
+
+        Set<Long> drift = new TreeSet<>();
+        for (Tuple tuple : actual) {
+            Long teamId = tuple.get(member.team.id);
+            if (!Objects.equals(stored.remove(teamId), values(tuple))) {
+                drift.add(teamId);
+            }
+        }
+        drift.addAll(stored.keySet()); // 실제로는 회원이 없는데 통계가 남아있는 팀
+
+        return drift;
+    }
+
+    // 개수, 합계, 최솟값, 최댓값 (sum 결과 타입이 DB/Dialect에 따라 다르므로 Number로 읽어서 비교)
+    private List<Long> values(Tuple tuple) {
+        List<Long> values = new ArrayList<>();
+        for (int i = 1; i < 5; i++) {
+            Number value = tuple.get(i, Number.class);
+            values.add(value != null ? value.longValue() : null);
+        }
+        return values;
+    }
+
+}
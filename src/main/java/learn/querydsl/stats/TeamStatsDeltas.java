@@ -0,0 +1,64 @@
+package learn.querydsl.stats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/*
+ 회원 한 명이 팀에 들어오거나 나갈 때 team_stats에 변경분만 반영하는 SQL
+ TeamStatsEventListener와 이벤트 리스너를 거치지 않는 단건 수정(updateIfVersion)에서 함께 사용
+
+ - 들어옴: 개수 +1, 합계 +age, min/max는 least/greatest
+ - 나감: 개수 -1, 합계 -age, 나간 나이가 min/max 였을 때만 해당 팀의 min/max 다시 계산
+   (member를 다시 읽으므로 member 변경이 DB에 반영된 뒤에 호출해야 함)
+ 팀 로우 하나만 갱신하므로 팀 전체를 다시 집계하는 TeamStatsRepository.refresh보다 가볍고 잠그는 범위도 좁음
+ */
+public final class TeamStatsDeltas {
+
+    private static final String JOIN_SQL =
+            "update team_stats set member_count = member_count + 1, age_sum = age_sum + ?, " +
+            "min_age = least(coalesce(min_age, ?), ?), max_age = greatest(coalesce(max_age, ?), ?) where team_id = ?";
+
+    private static final String LEAVE_SQL =
+            "update team_stats set member_count = member_count - 1, age_sum = age_sum - ?, " +
+            "min_age = case when min_age = ? then (select min(m.age) from member m where m.team_id = ?) else min_age end, " +
+            "max_age = case when max_age = ? then (select max(m.age) from member m where m.team_id = ?) else max_age end " +
+            "where team_id = ?";
+
+    private TeamStatsDeltas() {
+    }
+
+    // 통계 로우가 없으면(리스너를 거치지 않고 만든 팀) 0건이 갱신되고, TeamStatsVerifier가 다시 맞춤
+    public static void join(Connection connection, Long teamId, int age) throws SQLException {
+        if (teamId == null) {
+            return;
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(JOIN_SQL)) {
+            ps.setInt(1, age);
+            ps.setInt(2, age);
+            ps.setInt(3, age);
+            ps.setInt(4, age);
+            ps.setInt(5, age);
+            ps.setLong(6, teamId);
+            ps.executeUpdate();
+        }
+    }
+
+    public static void leave(Connection connection, Long teamId, int age) throws SQLException {
+        if (teamId == null) {
+            return;
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(LEAVE_SQL)) {
+            ps.setInt(1, age);
+            ps.setInt(2, age);
+            ps.setLong(3, teamId);
+            ps.setInt(4, age);
+            ps.setLong(5, teamId);
+            ps.setLong(6, teamId);
+            ps.executeUpdate();
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package learn.querydsl.stats;
+
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.util.Objects;
+
+/*
+ Member 변경을 team_stats에 증분 반영하는 Hibernate 이벤트 리스너
+
+ Post 이벤트는 member 테이블에 SQL이 실행된 직후, 같은 트랜잭션 안에서 호출됨
+ flush 도중이므로 EntityManager 대신 같은 커넥션에 JDBC로 직접 반영함
+
+ - 팀 생성: 빈 통계 로우를 만듦 (회원 추가는 항상 update만 하므로 첫 회원을 동시에 추가해도 키가 충돌하지 않음)
+ - 팀에 들어옴 (insert, 팀 변경, 나이 변경), 팀에서 나감 (delete, 팀 변경, 나이 변경): TeamStatsDeltas
+   나갈 때는 min/max를 다시 계산하면서 member를 읽으므로, JDBC 배치(hibernate.jdbc.batch_size)에 남아있는 member 변경을 먼저 실행함
+ */
+public class TeamStatsEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String CREATE_TEAM_SQL =
+            "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) values (?, 0, 0, null, null)";
+
+    private static final String DELETE_TEAM_SQL = "delete from team_stats where team_id = ?";
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            Member member = (Member) event.getEntity();
+            join(event.getSession(), teamId(member.getTeam()), member.getAge());
+        } else if (event.getEntity() instanceof Team) {
+            Long teamId = (Long) event.getId();
+            event.getSession().doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(CREATE_TEAM_SQL)) {
+                    ps.setLong(1, teamId);
+                    ps.executeUpdate();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member) || event.getOldState() == null) {
+            return;
+        }
+
+        int ageIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("age");
+        int teamIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+
+        int oldAge = (Integer) event.getOldState()[ageIndex];
+        int newAge = (Integer) event.getState()[ageIndex];
+        Long oldTeamId = teamId((Team) event.getOldState()[teamIndex]);
+        Long newTeamId = teamId((Team) event.getState()[teamIndex]);
+
+        if (oldAge == newAge && Objects.equals(oldTeamId, newTeamId)) {
+            return;
+        }
+
+        leave(event.getSession(), oldTeamId, oldAge);
+        join(event.getSession(), newTeamId, newAge);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            int ageIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("age");
+            int teamIndex = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+            leave(event.getSession(), teamId((Team) event.getDeletedState()[teamIndex]), (Integer) event.getDeletedState()[ageIndex]);
+        } else if (event.getEntity() instanceof Team) {
+            Long teamId = (Long) event.getId();
+            event.getSession().doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(DELETE_TEAM_SQL)) {
+                    ps.setLong(1, teamId);
+                    ps.executeUpdate();
+                }
+            });
+        }
+    }
+
+    private void join(EventSource session, Long teamId, int age) {
+        session.doWork(connection -> TeamStatsDeltas.join(connection, teamId, age));
+    }
+
+    private void leave(EventSource session, Long teamId, int age) {
+        if (teamId == null) {
+            return;
+        }
+
+        session.getJdbcCoordinator().executeBatch(); // 배치에 남은 member update/delete를 먼저 실행해야 min/max 서브쿼리가 반영된 상태를 읽음
+        session.doWork(connection -> TeamStatsDeltas.leave(connection, teamId, age));
+    }
+
+    private Long teamId(Team team) {
+        return team != null ? team.getId() : null; // 프록시여도 id 조회는 초기화하지 않음
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+}
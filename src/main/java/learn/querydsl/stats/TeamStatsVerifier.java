@@ -0,0 +1,36 @@
+package learn.querydsl.stats;
+
+import learn.querydsl.repository.TeamStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/*
+ team_stats가 실제 집계 결과와 어긋났는지 주기적으로 검사하고, 어긋났으면 다시 만듦
+ (리스너를 거치지 않은 벌크 연산, 직접 실행한 SQL 등으로 생길 수 있음)
+ */
+@Slf4j
+@Component
+@Lazy(false) // lazy 초기화(fast-start 프로필)에서도 스케줄 등록을 위해 바로 생성
+@RequiredArgsConstructor
+public class TeamStatsVerifier {
+
+    private final TeamStatsRepository teamStatsRepository;
+
+    @Scheduled(
+            initialDelayString = "${querydsl.team-stats.verify-delay-ms:300000}",
+            fixedDelayString = "${querydsl.team-stats.verify-delay-ms:300000}"
+    )
+    public void verify() {
+        Set<Long> drift = teamStatsRepository.findDrift();
+        if (!drift.isEmpty()) {
+            log.warn("team_stats drift detected for teams {}, rebuilding", drift);
+            teamStatsRepository.rebuild();
+        }
+    }
+
+}
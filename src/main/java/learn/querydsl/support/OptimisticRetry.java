@@ -0,0 +1,63 @@
+package learn.querydsl.support;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+
+/*
+ 낙관적 락 충돌 시 지수 백오프로 재시도
+
+ attempt는 매번 최신 상태(버전)를 다시 읽고 수정을 시도해야 하며, 각 시도가 별도 트랜잭션이어야 함
+ attempt가 false를 반환하거나(updateIfVersion 실패) OptimisticLockingFailureException이 발생하면 충돌로 보고 재시도
+ */
+public final class OptimisticRetry {
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMs;
+
+    private final long maxBackoffMs;
+
+    public OptimisticRetry(int maxAttempts, long initialBackoffMs, long maxBackoffMs) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public static OptimisticRetry defaults() {
+        return new OptimisticRetry(10, 1, 100);
+    }
+
+    /*
+     성공하면 시도 횟수를, maxAttempts 번 모두 충돌하면 -1을 반환
+     */
+    public int execute(BooleanSupplier attempt) {
+        long backoff = initialBackoffMs;
+        for (int i = 1; i <= maxAttempts; i++) {
+            try {
+                if (attempt.getAsBoolean()) {
+                    return i;
+                }
+            } catch (OptimisticLockingFailureException e) {
+                // 충돌, 아래에서 대기 후 재시도
+            }
+
+            if (i < maxAttempts) {
+                sleep(ThreadLocalRandom.current().nextLong(backoff + 1)); // 동시에 다시 충돌하지 않도록 대기 시간을 흩뜨림
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+        return -1;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting to retry", e);
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+-- member 테이블을 team_id 기준으로 해시 파티셔닝 (PostgreSQL 11+)
+-- H2는 파티셔닝을 지원하지 않으므로 테스트/로컬에서는 ddl-auto로 만든 일반 테이블을 사용함
+-- (이 스크립트는 H2에서 실행되지 않고, 테스트로는 파티션 프루닝을 확인할 수 없음)
+--
+-- 검색 시 teamName은 TeamIdCache로 팀 id로 바뀌어 member.team_id = ? 조건이 되므로
+-- 플래너가 해당 파티션 하나만 읽음 (파티션 프루닝)
+--
+-- 팀이 없는 회원이 있으므로(Member.team은 null 가능) team_id는 null을 허용하고 FK로 team만 참조함
+-- 해시 파티션에서 team_id가 null인 로우는 remainder 0 파티션에 들어감
+--
+-- 파티션 테이블의 기본 키/unique 제약은 파티션 키를 포함해야 하고, 기본 키 컬럼은 null일 수 없음
+-- -> 부모 테이블에는 기본 키를 두지 않고, 파티션마다 member_id unique 인덱스를 둠
+--    member_id는 Hibernate 시퀀스(hibernate_sequence)로만 생성하므로 파티션 사이에서도 겹치지 않음
+-- -> 같은 이유로 다른 테이블이 member(member_id)를 FK로 참조할 수 없음 (member_username_gram, outbox_event는 FK 없음)
+-- 팀을 옮기면(team_id 변경) PostgreSQL이 로우를 다른 파티션으로 옮김
+
+create table member (
+    member_id bigint not null,
+    age       integer not null,
+    username  varchar(255),
+    version   bigint,
+    team_id   bigint references team (team_id)
+) partition by hash (team_id);
+
+create table member_p0 partition of member for values with (modulus 4, remainder 0);
+create table member_p1 partition of member for values with (modulus 4, remainder 1);
+create table member_p2 partition of member for values with (modulus 4, remainder 2);
+create table member_p3 partition of member for values with (modulus 4, remainder 3);
+
+create unique index uk_member_p0_member_id on member_p0 (member_id);
+create unique index uk_member_p1_member_id on member_p1 (member_id);
+create unique index uk_member_p2_member_id on member_p2 (member_id);
+create unique index uk_member_p3_member_id on member_p3 (member_id);
+
+create index idx_member_username on member (username);
@@ -0,0 +1,107 @@
+package learn.querydsl.controller;
+
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    Team teamA;
+
+    @BeforeEach
+    void beforeEach() {
+        teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+    }
+
+    @Test
+    void searchMembers() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/members")
+                        .param("teamName", "teamB")
+                        .param("ageGoe", "35"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MemberApiController.NDJSON))
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(1);
+        assertThat(lines[0]).contains("\"username\":\"member4\"", "\"teamName\":\"teamB\"");
+    }
+
+    @Test
+    void searchMembers_notModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/members").param("teamName", "teamA"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // 결과가 바뀌지 않았으면 본문 없이 304
+        mockMvc.perform(get("/api/members")
+                        .param("teamName", "teamA")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // 조건에 부합하는 로우가 추가되면 ETag가 바뀜
+        em.persist(new Member("member5", 50, teamA));
+        em.flush();
+
+        mockMvc.perform(get("/api/members")
+                        .param("teamName", "teamA")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void searchMembers_teamRenamed() throws Exception {
+        String etag = mockMvc.perform(get("/api/members").param("ageLoe", "20"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        // 회원은 그대로지만 응답에 포함된 팀 이름이 바뀌면 ETag가 바뀜
+        teamA.changeName("teamC");
+        em.flush();
+
+        MvcResult result = mockMvc.perform(get("/api/members")
+                        .param("ageLoe", "20")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsString()).contains("\"teamName\":\"teamC\"");
+    }
+
+}
@@ -0,0 +1,102 @@
+package learn.querydsl.controller;
+
+import learn.querydsl.fixture.MemberFixtureGenerator;
+import learn.querydsl.repository.TeamIdCache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ 대량 응답을 /api/members로 끝까지 받으면서 힙 사용량이 응답 크기에 비례해서 늘지 않는지 확인
+
+ 실제 서버(RANDOM_PORT)에 HTTP로 요청하고, 응답을 한 줄씩 읽기만 하고 모으지 않음
+ 응답의 10% 지점을 기준으로, 50%와 90% 지점에서 full GC 후의 힙 사용량 증가가 MAX_GROWTH_BYTES 이하여야 함
+ (결과를 List<MemberTeamDto>로 모았다면 회원 수만큼, 수십 MB 이상 늘어남)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("perf-test")
+@Tag("performance")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MemberApiStreamingPerformanceTest {
+
+    static final Logger log = LoggerFactory.getLogger(MemberApiStreamingPerformanceTest.class);
+
+    static final int TEAMS = 200;
+
+    static final int MEMBERS = 500_000;
+
+    static final long MAX_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    TeamIdCache teamIdCache;
+
+    @Value("${fixture.seed}") long seed;
+
+    @BeforeAll
+    void load() {
+        // 팀 조건 없이 전체를 내려받으므로 team_stats, username 색인은 다시 만들 필요 없음
+        new MemberFixtureGenerator(dataSource).generate(new MemberFixtureGenerator.Spec(seed, TEAMS, MEMBERS, 1.1, 0.01));
+        teamIdCache.clear();
+    }
+
+    @Test
+    void streamingKeepsHeapFlat() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/members")).GET().build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        long rows = 0;
+        long baseline = 0;
+        long maxGrowth = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            while (reader.readLine() != null) {
+                rows++;
+                if (rows == MEMBERS / 10) {
+                    baseline = usedHeapAfterGc();
+                } else if (rows == MEMBERS / 2 || rows == MEMBERS * 9L / 10) {
+                    long growth = usedHeapAfterGc() - baseline;
+                    log.info("after {} rows: heap growth {} KB", rows, growth / 1024);
+                    maxGrowth = Math.max(maxGrowth, growth);
+                }
+            }
+        }
+
+        assertThat(rows).isEqualTo(MEMBERS);
+        assertThat(maxGrowth).as("heap growth while streaming").isLessThanOrEqualTo(MAX_GROWTH_BYTES);
+    }
+
+    private long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -0,0 +1,171 @@
+package learn.querydsl.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import learn.querydsl.dto.MemberSearchCond;
+import learn.querydsl.dto.MemberTeamDto;
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import learn.querydsl.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ 결과 목록을 DTO로 받아 ObjectMapper로 직렬화하는 경로(search)와
+ 컬럼 값을 JsonGenerator에 바로 쓰는 경로(searchRows + MemberTeamJsonWriter)를 비교
+ */
+@SpringBootTest
+@Transactional
+class MemberTeamJsonWriterTest {
+
+    static final Logger log = LoggerFactory.getLogger(MemberTeamJsonWriterTest.class);
+
+    static final int MEMBERS = 10;
+
+    static final int BENCHMARK_MEMBERS = 5000;
+
+    static final int ROUNDS = 5;
+
+    Team teamA;
+    Team teamB;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @BeforeEach
+    void beforeEach() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        persistMembers(0, MEMBERS);
+    }
+
+    @Test
+    void sameOutputAsDto() {
+        MemberSearchCond cond = new MemberSearchCond();
+
+        String dto = writeDto(cond);
+        String direct = writeDirect(cond);
+
+        assertThat(direct).isEqualTo(dto);
+        assertThat(direct.split("\n")).hasSize(MEMBERS);
+        assertThat(direct).contains("\"teamId\":null,\"teamName\":null");
+    }
+
+    @Test
+    @Tag("performance")
+    void allocationAndThroughput() {
+        persistMembers(MEMBERS, BENCHMARK_MEMBERS);
+        em.clear(); // 쿼리 전 auto flush에서 적재한 회원을 매번 dirty checking 하지 않도록
+        MemberSearchCond cond = new MemberSearchCond();
+
+        // 워밍업
+        writeDto(cond);
+        writeDirect(cond);
+
+        long rows = BENCHMARK_MEMBERS;
+        Measurement dto = measure(rows, () -> writeDto(cond));
+        Measurement direct = measure(rows, () -> writeDirect(cond));
+
+        log.info("dto    (search + ObjectMapper): {}", dto);
+        log.info("direct (searchRows + JsonGenerator): {}", direct);
+
+        // 로우마다 MemberTeamDto, 결과 목록, BeanSerializer 호출이 없으므로 할당량이 적어야 함
+        assertThat(direct.bytesPerRow).isLessThan(dto.bytesPerRow);
+    }
+
+    private void persistMembers(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Team team = i % 10 == 0 ? null : (i % 2 == 0 ? teamA : teamB); // 팀이 없는 회원도 포함
+            em.persist(new Member("member" + i, i % 60, team));
+            if (i % 500 == 0) {
+                em.flush();
+            }
+        }
+        em.flush();
+    }
+
+    private String writeDto(MemberSearchCond cond) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (MemberTeamDto dto : memberRepository.search(cond)) {
+                generator.writeObject(dto);
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String writeDirect(MemberSearchCond cond) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            memberRepository.searchRows(cond, new MemberTeamJsonWriter(generator, 1000));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Measurement measure(long rowsPerRound, Runnable round) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            round.run();
+            em.clear();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        long rows = rowsPerRound * ROUNDS;
+        return new Measurement(rows * 1_000_000_000L / Math.max(elapsedNanos, 1), allocated / rows);
+    }
+
+    static class Measurement {
+
+        final long rowsPerSecond;
+
+        final long bytesPerRow;
+
+        Measurement(long rowsPerSecond, long bytesPerRow) {
+            this.rowsPerSecond = rowsPerSecond;
+            this.bytesPerRow = bytesPerRow;
+        }
+
+        @Override
+        public String toString() {
+            return rowsPerSecond + " rows/s, " + bytesPerRow + " bytes allocated/row";
+        }
+
+    }
+
+}
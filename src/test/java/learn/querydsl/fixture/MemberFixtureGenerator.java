@@ -0,0 +1,158 @@
+package learn.querydsl.fixture;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ 성능 테스트용 대량 데이터를 JDBC 배치로 직접 적재 (H2 기준)
+
+ 같은 seed와 설정이면 항상 같은 데이터가 만들어짐
+ - 팀 크기: 순위 k인 팀이 1/k^teamSkew 비율로 회원을 가짐 (소수의 큰 팀과 다수의 작은 팀)
+ - 나이: 평균 38, 표준편차 12인 정규분포를 18~80으로 자름
+ - noTeamRatio 비율의 회원은 팀이 없음
+ - username은 "member" + 회원 id
+
+ 엔티티와 Hibernate 이벤트 리스너를 거치지 않으므로
+ 적재 후 TeamStatsRepository.rebuild(), MemberUsernameGramRepository.rebuild(), TeamIdCache.clear()를 호출해야 함
+ */
+public class MemberFixtureGenerator {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final int MIN_AGE = 18;
+
+    private static final int MAX_AGE = 80;
+
+    private final DataSource dataSource;
+
+    public MemberFixtureGenerator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /*
+     기존 회원, 팀과 파생 테이블을 모두 지우고 새로 적재
+     반환값은 팀 순위(0부터)별 회원 수
+     */
+    public long[] generate(Spec spec) {
+        Random random = new Random(spec.seed);
+        double[] cumulative = cumulativeTeamWeights(spec);
+        long[] teamSizes = new long[spec.teams];
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("delete from member_username_gram");
+                statement.executeUpdate("delete from team_stats");
+                statement.executeUpdate("delete from outbox_event");
+                statement.executeUpdate("delete from member");
+                statement.executeUpdate("delete from team");
+            }
+
+            // 팀 id는 1..teams, 회원 id는 그 다음부터 (hibernate_sequence를 함께 씀)
+            try (PreparedStatement insert = connection.prepareStatement("insert into team (team_id, name, version) values (?, ?, 0)")) {
+                for (int i = 0; i < spec.teams; i++) {
+                    insert.setLong(1, i + 1);
+                    insert.setString(2, teamName(i));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            long firstMemberId = spec.teams + 1L;
+            try (PreparedStatement insert = connection.prepareStatement("insert into member (member_id, username, age, version, team_id) values (?, ?, ?, 0, ?)")) {
+                for (long i = 0; i < spec.members; i++) {
+                    long memberId = firstMemberId + i;
+                    insert.setLong(1, memberId);
+                    insert.setString(2, "member" + memberId);
+                    insert.setInt(3, age(random));
+
+                    if (random.nextDouble() < spec.noTeamRatio) {
+                        insert.setNull(4, Types.BIGINT);
+                    } else {
+                        int rank = rank(cumulative, random.nextDouble());
+                        teamSizes[rank]++;
+                        insert.setLong(4, rank + 1);
+                    }
+
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("alter sequence hibernate_sequence restart with " + (firstMemberId + spec.members));
+            }
+
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("failed to load member fixture", e);
+        }
+
+        return teamSizes;
+    }
+
+    public static String teamName(int rank) {
+        return "team" + rank;
+    }
+
+    private double[] cumulativeTeamWeights(Spec spec) {
+        double[] cumulative = new double[spec.teams];
+        double sum = 0;
+        for (int k = 0; k < spec.teams; k++) {
+            sum += 1 / Math.pow(k + 1, spec.teamSkew);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < spec.teams; k++) {
+            cumulative[k] /= sum;
+        }
+        return cumulative;
+    }
+
+    private int rank(double[] cumulative, double value) {
+        int index = Arrays.binarySearch(cumulative, value);
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1); // 부동소수점 오차로 마지막 누적값이 1보다 작을 때
+    }
+
+    private int age(Random random) {
+        int age = (int) Math.round(38 + random.nextGaussian() * 12);
+        return Math.max(MIN_AGE, Math.min(MAX_AGE, age));
+    }
+
+    public static class Spec {
+
+        final long seed;
+
+        final int teams;
+
+        final long members;
+
+        final double teamSkew;
+
+        final double noTeamRatio;
+
+        public Spec(long seed, int teams, long members, double teamSkew, double noTeamRatio) {
+            if (teams < 1 || members < 0) {
+                throw new IllegalArgumentException("teams must be positive and members must not be negative");
+            }
+            this.seed = seed;
+            this.teams = teams;
+            this.members = members;
+            this.teamSkew = teamSkew;
+            this.noTeamRatio = noTeamRatio;
+        }
+
+    }
+
+}
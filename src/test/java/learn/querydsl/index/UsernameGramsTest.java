@@ -0,0 +1,25 @@
+package learn.querydsl.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class UsernameGramsTest {
+
+    @Test
+    void grams() {
+        assertThat(UsernameGrams.of("Member")).containsExactly("mem", "emb", "mbe", "ber");
+    }
+
+    @Test
+    void duplicateGrams() {
+        assertThat(UsernameGrams.of("aaaa")).containsExactly("aaa");
+    }
+
+    @Test
+    void tooShort() {
+        assertThat(UsernameGrams.of("ab")).isEmpty();
+        assertThat(UsernameGrams.of(null)).isEmpty();
+    }
+
+}
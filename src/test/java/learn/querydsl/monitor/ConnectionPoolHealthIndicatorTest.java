@@ -0,0 +1,38 @@
+package learn.querydsl.monitor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import learn.querydsl.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+// OutboxPoller 등 스케줄 작업이 커넥션을 잡고 있으면 active가 0이 아닐 수 있으므로 스케줄링을 끔
+@SpringBootTest(properties = "querydsl.scheduling.enabled=false")
+class ConnectionPoolHealthIndicatorTest {
+
+    @Autowired
+    ConnectionPoolHealthIndicator healthIndicator;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void health() {
+        memberRepository.count(); // 풀 초기화
+
+        Health health = healthIndicator.health();
+
+        // 트랜잭션 밖이므로 사용 중인 커넥션이 없음
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("active", 0).containsEntry("pending", 0).containsEntry("saturated", false).containsKey("max");
+        assertThat(meterRegistry.get("querydsl.pool.saturated").gauge().value()).isZero();
+    }
+
+}
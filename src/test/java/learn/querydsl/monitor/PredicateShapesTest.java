@@ -0,0 +1,30 @@
+package learn.querydsl.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import static learn.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+class PredicateShapesTest {
+
+    @Test
+    void valuesAreDropped() {
+        String shape = PredicateShapes.of(member.username.eq("member1").and(member.age.goe(20)));
+
+        assertThat(shape).isEqualTo("member1.username EQ and member1.age GOE");
+        assertThat(shape).isEqualTo(PredicateShapes.of(member.username.eq("member2").and(member.age.goe(30))));
+    }
+
+    @Test
+    void orAndNot() {
+        String shape = PredicateShapes.of(member.age.lt(10).or(member.username.startsWith("a").not()));
+
+        assertThat(shape).isEqualTo("(member1.age LT or not member1.username STARTS_WITH)");
+    }
+
+    @Test
+    void noPredicate() {
+        assertThat(PredicateShapes.of(null)).isEmpty();
+    }
+
+}
@@ -0,0 +1,86 @@
+package learn.querydsl.monitor;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.entity.Member;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static learn.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class QueryProfilerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordSlowQuery() {
+        em.persist(new Member("member1", 10));
+        em.persist(new Member("member2", 20));
+        em.flush();
+
+        // 임계값 0ms -> 모든 쿼리를 기록
+        SlowQueryLog slowQueryLog = new SlowQueryLog(1);
+        QueryProfiler profiler = new QueryProfiler(slowQueryLog, 0, false);
+
+        JPAQuery<Member> query = queryFactory
+                .selectFrom(member)
+                .where(member.username.eq("member1"), member.age.goe(5));
+        profiler.fetch(query, "QueryProfilerTest.first", "member1.username EQ and member1.age GOE");
+
+        List<SlowQueryEntry> recent = slowQueryLog.recent();
+        assertThat(recent).hasSize(1);
+
+        SlowQueryEntry entry = recent.get(0);
+        assertThat(entry.getOrigin()).isEqualTo("QueryProfilerTest.first");
+        assertThat(entry.getRows()).isEqualTo(1);
+        assertThat(entry.getSql()).contains("QueryProfilerTest.first"); // SQL 주석으로 호출 위치가 남음
+        assertThat(entry.getBindTypes()).containsExactly("String", "Integer"); // 값은 남기지 않음
+        assertThat(entry.getPlan()).isNull(); // 실행 계획은 조회할 때 계산
+
+        SlowQueryEndpoint endpoint = new SlowQueryEndpoint(slowQueryLog, jdbcTemplate, true);
+        assertThat(endpoint.slowQueries()).extracting("plan").doesNotContainNull();
+
+        // 용량을 넘으면 오래된 기록부터 버림
+        profiler.fetchOne(queryFactory.select(member.count()).from(member), "QueryProfilerTest.second", "");
+        assertThat(slowQueryLog.recent()).extracting("origin").containsExactly("QueryProfilerTest.second");
+    }
+
+    @Test
+    void forEach_excludesActionTime() {
+        em.persist(new Member("member1", 10));
+        em.flush();
+
+        SlowQueryLog slowQueryLog = new SlowQueryLog(1);
+        QueryProfiler profiler = new QueryProfiler(slowQueryLog, 200, false);
+
+        // 느린 수신 측(응답 쓰기)에서 보낸 시간은 쿼리 시간에 포함하지 않음
+        profiler.forEach(queryFactory.selectFrom(member), "QueryProfilerTest.forEach", "", m -> sleep(300));
+
+        assertThat(slowQueryLog.recent()).isEmpty();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package learn.querydsl.outbox;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.dto.ChangeEvent;
+import learn.querydsl.dto.MemberUpdate;
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import learn.querydsl.repository.BulkChangeRepository;
+import learn.querydsl.repository.MemberRepository;
+import learn.querydsl.repository.OutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static learn.querydsl.entity.QMember.member;
+import static learn.querydsl.entity.QOutboxEvent.outboxEvent;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OutboxPollerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    OutboxRepository outboxRepository;
+
+    @Autowired
+    BulkChangeRepository bulkChangeRepository;
+
+    @BeforeEach
+    void beforeEach() {
+        queryFactory.delete(outboxEvent).execute(); // 다른 테스트가 커밋한 이벤트 제거 (롤백됨)
+    }
+
+    @Test
+    void poll() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.flush();
+
+        member1.changeTeam(teamB);
+        em.flush();
+
+        memberRepository.updateIfVersion(member1.getId(), member1.getVersion(), new MemberUpdate(11, null));
+
+        em.remove(em.find(Member.class, member1.getId()));
+        em.flush();
+
+        List<List<ChangeEvent>> batches = new ArrayList<>();
+        OutboxPoller poller = new OutboxPoller(outboxRepository, List.of(batches::add), 4, Duration.ofHours(1));
+
+        assertThat(poller.poll()).isEqualTo(4);
+        assertThat(poller.poll()).isEqualTo(2);
+        assertThat(poller.poll()).isZero(); // 전달된 이벤트는 삭제됨
+
+        // 변경 순서대로 배치 단위로 전달
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).extracting("aggregateType", "eventType")
+                .containsExactly(
+                        tuple("Team", OutboxEvents.CREATED),
+                        tuple("Team", OutboxEvents.CREATED),
+                        tuple("Member", OutboxEvents.CREATED),
+                        tuple("Member", OutboxEvents.UPDATED) // changeTeam
+                );
+        assertThat(batches.get(1)).extracting("aggregateType", "eventType")
+                .containsExactly(
+                        tuple("Member", OutboxEvents.UPDATED), // updateIfVersion (벌크 연산)
+                        tuple("Member", OutboxEvents.DELETED)
+                );
+        assertThat(batches.get(1).get(0).getPayload()).contains("\"age\":11");
+    }
+
+    @Test
+    void bulkUpdate() {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        Member member3 = new Member("member3", 30);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+        queryFactory.delete(outboxEvent).execute();
+
+        long rows = bulkChangeRepository.updateMembers(Map.of(member.age, 40), member.age.goe(15));
+
+        // 조건절 대신 실제로 바뀐 로우마다 이벤트를 기록
+        List<ChangeEvent> events = outboxRepository.findPending(10);
+        assertThat(rows).isEqualTo(2);
+        assertThat(events).extracting("aggregateType", "aggregateId", "eventType")
+                .containsExactly(
+                        tuple("Member", member2.getId(), OutboxEvents.UPDATED),
+                        tuple("Member", member3.getId(), OutboxEvents.UPDATED)
+                );
+        assertThat(events.get(0).getPayload()).contains("\"age\":40");
+    }
+
+    @Test
+    void poll_noConsumers() {
+        insertEvent(LocalDateTime.now().minusHours(2));
+        insertEvent(LocalDateTime.now());
+
+        OutboxPoller poller = new OutboxPoller(outboxRepository, List.of(), 4, Duration.ofHours(1));
+
+        // 수신자가 없으면 retention이 지난 이벤트만 삭제
+        assertThat(poller.poll()).isZero();
+        assertThat(outboxRepository.findPending(10)).hasSize(1);
+    }
+
+    private void insertEvent(LocalDateTime createdAt) {
+        em.createNativeQuery(OutboxEvents.INSERT_SQL)
+                .setParameter(1, "Member")
+                .setParameter(2, 1L)
+                .setParameter(3, OutboxEvents.UPDATED)
+                .setParameter(4, "{}")
+                .setParameter(5, Timestamp.valueOf(createdAt))
+                .executeUpdate();
+    }
+
+}
@@ -0,0 +1,121 @@
+package learn.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.dto.MemberSearchCond;
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+
+import static learn.querydsl.entity.QMember.member;
+import static learn.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class BulkChangeRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    BulkChangeRepository bulkChangeRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    TeamIdCache teamIdCache;
+
+    Team teamA;
+    Team teamB;
+
+    @BeforeEach
+    void beforeEach() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void updateMembers() {
+        long rows = bulkChangeRepository.updateMembers(
+                Map.of(member.age, 50, member.team, em.getReference(Team.class, teamB.getId())),
+                member.username.eq("member2")
+        );
+
+        Member result = memberRepository.findByUsername("member2").get(0);
+        assertThat(rows).isEqualTo(1);
+        assertThat(result.getVersion()).isEqualTo(1L);
+        // 떠난 팀과 옮겨간 팀 통계가 모두 맞음
+        assertThat(teamStatsRepository.findDrift()).isEmpty();
+        assertThat(teamStatsRepository.findAll()).extracting("teamName", "memberCount", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 1L, 10),
+                        tuple("teamB", 2L, 50)
+                );
+    }
+
+    @Test
+    void updateMembers_username() {
+        bulkChangeRepository.updateMembers(Map.of(member.username, "renamed"), member.username.eq("member1"));
+
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setUsernameContains("name");
+        assertThat(memberRepository.search(cond)).extracting("username").containsExactly("renamed");
+
+        cond.setUsernameContains("mber1");
+        assertThat(memberRepository.search(cond)).isEmpty();
+    }
+
+    @Test
+    void deleteMembers() {
+        long rows = bulkChangeRepository.deleteMembers(member.team.id.eq(teamA.getId()));
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(teamStatsRepository.findDrift()).isEmpty();
+        assertThat(teamStatsRepository.findAll()).extracting("teamName", "memberCount")
+                .containsExactly(
+                        tuple("teamA", 0L),
+                        tuple("teamB", 1L)
+                );
+    }
+
+    @Test
+    void updateTeams() {
+        assertThat(teamIdCache.resolve("teamA")).containsExactly(teamA.getId());
+
+        bulkChangeRepository.updateTeams(Map.of(team.name, "teamC"), team.name.eq("teamA"));
+
+        // 바뀌기 전 이름이 캐시에 남아있지 않음
+        assertThat(teamIdCache.resolve("teamA")).isEmpty();
+        assertThat(teamIdCache.resolve("teamC")).containsExactly(teamA.getId());
+        assertThat(em.find(Team.class, teamA.getId()).getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void noMatch() {
+        assertThat(bulkChangeRepository.updateMembers(Map.of(member.age, 1), member.age.gt(100))).isZero();
+        assertThat(bulkChangeRepository.deleteMembers(member.age.gt(100))).isZero();
+    }
+
+}
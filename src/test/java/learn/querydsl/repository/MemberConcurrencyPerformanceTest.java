@@ -0,0 +1,176 @@
+package learn.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.dto.MemberUpdate;
+import learn.querydsl.entity.Member;
+import learn.querydsl.support.OptimisticRetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+import static learn.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ updateIfVersion(낙관적 락)과 PESSIMISTIC_WRITE(select ... for update)의 처리량 비교
+
+ 경합 수준을 고정함
+ - THREADS개 스레드가 HOT_ROWS개 회원을 나눠서 수정 (회원 하나당 THREADS / HOT_ROWS개 스레드가 경합)
+ - 커넥션 풀은 POOL_SIZE개 (스레드 수보다 적음)
+ - 읽은 후 수정하기 전에 WORK_MS 동안 애플리케이션 작업을 함
+
+ 비관적 락은 작업하는 동안 로우 락과 커넥션을 잡고 있으므로 처리량이 POOL_SIZE / WORK_MS 근처로 묶이고,
+ 낙관적 락은 작업 중에 아무것도 잡지 않으므로 회원 수(HOT_ROWS)만큼 병렬로 진행됨
+ */
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=" + MemberConcurrencyPerformanceTest.POOL_SIZE)
+@Tag("performance")
+class MemberConcurrencyPerformanceTest {
+
+    static final Logger log = LoggerFactory.getLogger(MemberConcurrencyPerformanceTest.class);
+
+    static final int THREADS = 8;
+
+    static final int HOT_ROWS = 4;
+
+    static final int POOL_SIZE = 2;
+
+    static final long WORK_MS = 20;
+
+    static final int UPDATES_PER_THREAD = 10;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<Long> memberIds;
+
+    @BeforeEach
+    void beforeEach() {
+        memberIds = new ArrayList<>();
+        for (int i = 0; i < HOT_ROWS; i++) {
+            memberIds.add(memberRepository.save(new Member("hot" + i, 0)).getId());
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void optimisticOutperformsPessimistic() throws Exception {
+        long optimistic = optimistic();
+        memberRepository.deleteAll();
+        beforeEach();
+        long pessimistic = pessimistic();
+
+        log.info("{} threads on {} rows, pool {}, work {}ms: optimistic {} updates/s, pessimistic {} updates/s",
+                THREADS, HOT_ROWS, POOL_SIZE, WORK_MS, optimistic, pessimistic);
+
+        assertThat(optimistic).isGreaterThan(pessimistic);
+    }
+
+    private long optimistic() throws Exception {
+        OptimisticRetry retry = new OptimisticRetry(100, 1, WORK_MS);
+
+        long elapsedMs = runConcurrently(thread -> {
+            Long memberId = memberIds.get(thread % HOT_ROWS);
+            int attempts = retry.execute(() -> {
+                Member current = memberRepository.findById(memberId).orElseThrow();
+                work();
+                return memberRepository.updateIfVersion(memberId, current.getVersion(), new MemberUpdate(current.getAge() + 1, null));
+            });
+            assertThat(attempts).isPositive();
+        });
+
+        assertUpdatesApplied();
+        return throughput(elapsedMs);
+    }
+
+    private long pessimistic() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        long elapsedMs = runConcurrently(thread -> transactionTemplate.executeWithoutResult(status -> {
+            Long memberId = memberIds.get(thread % HOT_ROWS);
+            Member current = em.find(Member.class, memberId, LockModeType.PESSIMISTIC_WRITE); // select ... for update
+            work();
+            queryFactory
+                    .update(member)
+                    .set(member.age, current.getAge() + 1)
+                    .where(member.id.eq(memberId))
+                    .execute();
+        }));
+
+        assertUpdatesApplied();
+        return throughput(elapsedMs);
+    }
+
+    // 두 방식 모두 갱신 손실 없이 같은 결과를 내야 비교가 의미 있음
+    private void assertUpdatesApplied() {
+        int expected = THREADS / HOT_ROWS * UPDATES_PER_THREAD;
+        for (Long memberId : memberIds) {
+            assertThat(memberRepository.findById(memberId).orElseThrow().getAge()).isEqualTo(expected);
+        }
+    }
+
+    private long runConcurrently(IntConsumer update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            long start = System.currentTimeMillis();
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+                        update.accept(thread);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(); // 작업 스레드의 실패를 테스트 스레드로 전달
+            }
+
+            return System.currentTimeMillis() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void work() {
+        try {
+            Thread.sleep(WORK_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long throughput(long elapsedMs) {
+        return THREADS * UPDATES_PER_THREAD * 1000L / Math.max(elapsedMs, 1);
+    }
+
+}
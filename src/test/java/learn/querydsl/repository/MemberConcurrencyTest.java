@@ -0,0 +1,83 @@
+package learn.querydsl.repository;
+
+import learn.querydsl.dto.MemberUpdate;
+import learn.querydsl.entity.Member;
+import learn.querydsl.support.OptimisticRetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ 같은 회원(hot row)을 여러 스레드가 동시에 수정할 때 갱신 손실이 없는지 확인
+ 스레드마다 별도 트랜잭션이 필요하므로 @Transactional을 붙이지 않고, 끝나면 직접 정리함
+ (비관적 락과의 처리량 비교는 MemberConcurrencyPerformanceTest)
+ */
+@SpringBootTest
+class MemberConcurrencyTest {
+
+    static final int THREADS = 4;
+
+    static final int UPDATES_PER_THREAD = 25;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    Long memberId;
+
+    @BeforeEach
+    void beforeEach() {
+        memberId = memberRepository.save(new Member("hot", 0)).getId();
+    }
+
+    @AfterEach
+    void afterEach() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void updateIfVersion() throws Exception {
+        OptimisticRetry retry = new OptimisticRetry(100, 1, 20);
+
+        runConcurrently(() -> {
+            int attempts = retry.execute(() -> {
+                Member current = memberRepository.findById(memberId).orElseThrow();
+                return memberRepository.updateIfVersion(memberId, current.getVersion(), new MemberUpdate(current.getAge() + 1, null));
+            });
+            assertThat(attempts).isPositive();
+        });
+
+        Member result = memberRepository.findById(memberId).orElseThrow();
+        assertThat(result.getAge()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+        assertThat(result.getVersion()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+    }
+
+    private void runConcurrently(Runnable update) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+                        update.run();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(); // 작업 스레드의 실패를 테스트 스레드로 전달
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package learn.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.entity.Member;
+import learn.querydsl.fixture.MemberFixtureGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static learn.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ 회원 한 명을 엔티티로 로딩했을 때 영속성 컨텍스트가 붙잡고 있는 힙 크기 비교
+ - selectFrom(member): 변경 감지용 스냅샷을 함께 보관
+ - MemberReadRepository.findAll(): 읽기 전용 힌트로 스냅샷을 만들지 않음
+
+ 두 경로 모두 같은 읽기/쓰기 트랜잭션 안에서 실행함
+ (readOnly 트랜잭션은 Spring이 세션 전체를 읽기 전용으로 바꾸므로 힌트의 효과만 비교할 수 없음)
+ full GC 후의 힙 사용량 차이를 회원 수로 나눈 값이고, RUNS번 측정한 중앙값으로 비교
+ */
+@SpringBootTest
+@ActiveProfiles("perf-test")
+@Tag("performance")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MemberReadMemoryPerformanceTest {
+
+    static final Logger log = LoggerFactory.getLogger(MemberReadMemoryPerformanceTest.class);
+
+    static final int TEAMS = 100;
+
+    static final int MEMBERS = 200_000;
+
+    static final int RUNS = 3;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    MemberReadRepository memberReadRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${fixture.seed}") long seed;
+
+    @BeforeAll
+    void load() {
+        new MemberFixtureGenerator(dataSource).generate(new MemberFixtureGenerator.Spec(seed, TEAMS, MEMBERS, 1.1, 0.01));
+    }
+
+    @Test
+    void readOnlyHintsRetainLessHeap() {
+        long regular = bytesPerMember(() -> queryFactory.selectFrom(member).fetch());
+        long readOnly = bytesPerMember(() -> memberReadRepository.findAll());
+
+        log.info("retained heap per member: regular {} bytes, read-only {} bytes ({} members)", regular, readOnly, MEMBERS);
+        assertThat(readOnly).isLessThan(regular);
+    }
+
+    private long bytesPerMember(Supplier<List<Member>> load) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long[] measured = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            measured[i] = tx.execute(status -> {
+                long before = usedHeapAfterGc();
+                List<Member> members = load.get();
+                long after = usedHeapAfterGc();
+
+                assertThat(members).hasSize(MEMBERS); // 측정이 끝날 때까지 결과를 붙잡아 둠
+                return (after - before) / MEMBERS;
+            });
+        }
+        Arrays.sort(measured);
+        return measured[RUNS / 2];
+    }
+
+    private long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -1,12 +1,17 @@
 package learn.querydsl.repository;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
 import learn.querydsl.dto.MemberSearchCond;
 import learn.querydsl.dto.MemberTeamDto;
+import learn.querydsl.dto.MemberUpdate;
 import learn.querydsl.entity.Member;
 import learn.querydsl.entity.QMember;
+import learn.querydsl.entity.Team;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,8 +19,10 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.EntityManager;
 
 import java.util.List;
+import java.util.Map;
 
 import static learn.querydsl.entity.QMember.member;
+import static learn.querydsl.entity.QMemberUsernameGram.memberUsernameGram;
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,9 +33,18 @@ class MemberRepositoryTest {
     @Autowired
     EntityManager em;
 
+    @Autowired
+    JPAQueryFactory queryFactory;
+
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberReadRepository memberReadRepository;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
     @Test
     void search() {
         Member member1 = new Member("member1", 10);
@@ -111,4 +127,147 @@ class MemberRepositoryTest {
 
         assertThat(result).extracting("username").containsExactly("member3");
     }
-}
\ No newline at end of file
+
+    @Test
+    void readOnly() {
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 20));
+        em.flush();
+        em.clear();
+
+        List<Member> result = memberReadRepository.findAll(member.age.goe(20));
+
+        // 읽기 전용으로 로딩된 엔티티는 스냅샷이 없고, 변경 감지 대상에서 제외됨
+        Session session = em.unwrap(Session.class);
+        assertThat(result).extracting("username").containsExactly("member2");
+        assertThat(result).allMatch(session::isReadOnly);
+    }
+
+    @Test
+    void search_contradictoryCond() {
+        memberRepository.save(new Member("member1", 30));
+
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setAgeGoe(35);
+        cond.setAgeLoe(25);
+
+        // ageGoe > ageLoe 인 조건은 쿼리 없이 빈 결과 반환
+        assertThat(memberRepository.search(cond)).isEmpty();
+        assertThat(memberRepository.searchWithPaging(cond, PageRequest.of(0, 3)).getTotalElements()).isZero();
+    }
+
+    @Test
+    void searchAll() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20, teamA));
+        memberRepository.save(new Member("member3", 30, teamB));
+        memberRepository.save(new Member("member4", 40, teamB));
+
+        MemberSearchCond condA = teamCond("teamA");
+        MemberSearchCond condB = teamCond("teamB");
+        MemberSearchCond condC = teamCond("teamC");
+        MemberSearchCond condAge = new MemberSearchCond(); // teamName이 없어서 합칠 수 없는 조건
+        condAge.setAgeGoe(35);
+        MemberSearchCond condEmpty = teamCond("teamA"); // 모순 조건
+        condEmpty.setAgeGoe(30);
+        condEmpty.setAgeLoe(20);
+
+        // condA, condB, condC는 team.name in (...) 쿼리 하나로 조회됨
+        Map<MemberSearchCond, List<MemberTeamDto>> result = memberRepository.searchAll(List.of(condA, condB, condC, condAge, condEmpty));
+
+        assertThat(result.get(condA)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(result.get(condB)).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(result.get(condC)).isEmpty();
+        assertThat(result.get(condAge)).extracting("username").containsExactly("member4");
+        assertThat(result.get(condEmpty)).isEmpty();
+    }
+
+    @Test
+    void search_username() {
+        memberRepository.save(new Member("alice", 10));
+        memberRepository.save(new Member("malice", 20));
+        memberRepository.save(new Member("bob", 30));
+        Member carol = memberRepository.save(new Member("carol", 40));
+
+        MemberSearchCond prefixCond = new MemberSearchCond();
+        prefixCond.setUsernamePrefix("ali");
+
+        // 접두사는 인덱스를 쓰기 위해 대소문자를 구분함
+        MemberSearchCond upperPrefixCond = new MemberSearchCond();
+        upperPrefixCond.setUsernamePrefix("ALI");
+
+        // 3-gram 색인으로 후보를 찾고 like로 확인
+        MemberSearchCond containsCond = new MemberSearchCond();
+        containsCond.setUsernameContains("LIC");
+
+        // 3글자보다 짧으면 like만 사용
+        MemberSearchCond shortCond = new MemberSearchCond();
+        shortCond.setUsernameContains("o");
+
+        assertThat(memberRepository.search(prefixCond)).extracting("username").containsExactly("alice");
+        assertThat(memberRepository.search(upperPrefixCond)).isEmpty();
+        assertThat(memberRepository.search(containsCond)).extracting("username").containsExactlyInAnyOrder("alice", "malice");
+        assertThat(memberRepository.search(shortCond)).extracting("username").containsExactlyInAnyOrder("bob", "carol");
+
+        // 엔티티 삭제 시 색인도 함께 정리됨 (member가 지워지면 검색 결과로는 알 수 없으므로 색인 테이블을 직접 확인)
+        em.flush();
+        assertThat(gramCount(carol.getId())).isEqualTo(3); // car, aro, rol
+
+        memberRepository.delete(carol);
+        em.flush();
+
+        assertThat(gramCount(carol.getId())).isZero();
+    }
+
+    @Test
+    void updateIfVersion() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = memberRepository.save(new Member("member1", 10, teamA));
+        em.flush();
+
+        Long id = member1.getId();
+        long version = member1.getVersion();
+
+        boolean updated = memberRepository.updateIfVersion(id, version, new MemberUpdate(11, teamB.getId()));
+        // 이미 버전이 올라갔으므로 같은 버전으로 다시 수정하면 실패
+        boolean stale = memberRepository.updateIfVersion(id, version, new MemberUpdate(99, null));
+
+        Member result = memberRepository.findById(id).orElseThrow();
+        assertThat(updated).isTrue();
+        assertThat(stale).isFalse();
+        assertThat(result.getAge()).isEqualTo(11);
+        assertThat(result.getVersion()).isEqualTo(version + 1);
+        assertThat(result.getTeam().getName()).isEqualTo("teamB");
+        // 이벤트 리스너를 거치지 않았지만 떠난 팀과 옮겨간 팀 통계에 변경분이 반영됨
+        assertThat(teamStatsRepository.findDrift()).isEmpty();
+    }
+
+    @Test
+    void updateIfVersion_notFound() {
+        // 충돌(false)과 달리 재시도해도 소용없으므로 예외
+        assertThatThrownBy(() -> memberRepository.updateIfVersion(-1L, 0, new MemberUpdate(11, null)))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    private long gramCount(Long memberId) {
+        return queryFactory
+                .select(memberUsernameGram.count())
+                .from(memberUsernameGram)
+                .where(memberUsernameGram.memberId.eq(memberId))
+                .fetchOne();
+    }
+
+    private MemberSearchCond teamCond(String teamName) {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName(teamName);
+        return cond;
+    }
+}
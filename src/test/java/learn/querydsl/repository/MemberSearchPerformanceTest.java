@@ -0,0 +1,178 @@
+package learn.querydsl.repository;
+
+import learn.querydsl.dto.MemberSearchCond;
+import learn.querydsl.dto.MemberTeamDto;
+import learn.querydsl.fixture.MemberFixtureGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ MemberFixtureGenerator로 적재한 대량 데이터에서 search, searchWithPaging 응답 시간을 확인
+ 기본 test 태스크에서는 제외되고 perfTest 태스크(CI의 별도 작업)로 실행됨
+
+ 실행 시간은 워밍업 후 여러 번 실행한 중앙값으로 비교 (상한은 application-perf-test.yml의 fixture.budget-ms)
+ 데이터를 한 번만 적재하려고 @Transactional 없이 클래스 단위로 적재함
+ */
+@SpringBootTest
+@ActiveProfiles("perf-test")
+@Tag("performance")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MemberSearchPerformanceTest {
+
+    static final Logger log = LoggerFactory.getLogger(MemberSearchPerformanceTest.class);
+
+    static final int WARMUP = 3;
+
+    static final int RUNS = 9;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    MemberUsernameGramRepository memberUsernameGramRepository;
+
+    @Autowired
+    TeamIdCache teamIdCache;
+
+    @Value("${fixture.seed}") long seed;
+    @Value("${fixture.teams}") int teams;
+    @Value("${fixture.members}") long members;
+    @Value("${fixture.team-skew}") double teamSkew;
+    @Value("${fixture.no-team-ratio}") double noTeamRatio;
+    @Value("${fixture.username-index}") boolean usernameIndex;
+
+    @Value("${fixture.budget-ms.search-username}") long searchUsernameBudget;
+    @Value("${fixture.budget-ms.search-team-age}") long searchTeamAgeBudget;
+    @Value("${fixture.budget-ms.search-contains}") long searchContainsBudget;
+    @Value("${fixture.budget-ms.paging-first}") long pagingFirstBudget;
+    @Value("${fixture.budget-ms.paging-deep}") long pagingDeepBudget;
+
+    long[] teamSizes;
+
+    @BeforeAll
+    void load() {
+        long start = System.currentTimeMillis();
+
+        MemberFixtureGenerator generator = new MemberFixtureGenerator(dataSource);
+        teamSizes = generator.generate(new MemberFixtureGenerator.Spec(seed, teams, members, teamSkew, noTeamRatio));
+
+        // 직접 적재한 데이터는 이벤트 리스너를 거치지 않으므로 파생 데이터를 다시 만듦
+        teamStatsRepository.rebuild();
+        if (usernameIndex) {
+            memberUsernameGramRepository.rebuild();
+        }
+        teamIdCache.clear();
+
+        log.info("fixture: {} members, {} teams, largest team {}, loaded in {}ms",
+                members, teams, teamSizes[0], System.currentTimeMillis() - start);
+    }
+
+    @Test
+    void fixtureIsSkewed() {
+        assertThat(teamSizes[0]).isGreaterThan(teamSizes[teams - 1] * 10);
+        assertThat(memberRepository.count()).isEqualTo(members);
+    }
+
+    @Test
+    void search_username() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setUsername("member" + (teams + 1 + members / 2));
+
+        List<MemberTeamDto> result = timed("search_username", searchUsernameBudget, () -> memberRepository.search(cond));
+
+        assertThat(result).hasSize(1);
+    }
+
+    @Test
+    void search_teamNameAndAge() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName(MemberFixtureGenerator.teamName(0));
+        cond.setAgeGoe(30);
+        cond.setAgeLoe(32);
+
+        List<MemberTeamDto> result = timed("search_teamNameAndAge", searchTeamAgeBudget, () -> memberRepository.search(cond));
+
+        assertThat(result).isNotEmpty()
+                .allSatisfy(dto -> assertThat(dto.getAge()).isBetween(30, 32));
+    }
+
+    @Test
+    void search_usernameContains() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setUsernameContains("12345");
+
+        List<MemberTeamDto> result = timed("search_usernameContains", searchContainsBudget, () -> memberRepository.search(cond));
+
+        assertThat(result).isNotEmpty()
+                .extracting("username").allSatisfy(username -> assertThat((String) username).contains("12345"));
+    }
+
+    @Test
+    void searchWithPaging_firstPage() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName(MemberFixtureGenerator.teamName(0));
+
+        Page<MemberTeamDto> result = timed("searchWithPaging_firstPage", pagingFirstBudget,
+                () -> memberRepository.searchWithPaging(cond, PageRequest.of(0, 20)));
+
+        assertThat(result.getContent()).hasSize(20);
+        assertThat(result.getTotalElements()).isEqualTo(teamSizes[0]);
+    }
+
+    @Test
+    void searchWithPaging_deepPage() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName(MemberFixtureGenerator.teamName(1));
+        int page = (int) (teamSizes[1] / 20 / 2); // 가운데 페이지
+
+        Page<MemberTeamDto> result = timed("searchWithPaging_deepPage", pagingDeepBudget,
+                () -> memberRepository.searchWithPaging(cond, PageRequest.of(page, 20)));
+
+        assertThat(result.getContent()).hasSize(20);
+        assertThat(result.getTotalElements()).isEqualTo(teamSizes[1]);
+    }
+
+    private <T> T timed(String name, long budgetMs, Supplier<T> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.get();
+        }
+
+        T result = null;
+        long[] elapsed = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            result = query.get();
+            elapsed[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(elapsed);
+        long median = elapsed[RUNS / 2];
+
+        log.info("{}: median {}ms, max {}ms (budget {}ms)", name, median, elapsed[RUNS - 1], budgetMs);
+        assertThat(median).as(name + " median elapsed ms").isLessThanOrEqualTo(budgetMs);
+        return result;
+    }
+
+}
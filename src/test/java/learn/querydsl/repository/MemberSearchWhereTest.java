@@ -0,0 +1,120 @@
+package learn.querydsl.repository;
+
+import learn.querydsl.dto.MemberSearchCond;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static learn.querydsl.entity.QMember.member;
+import static learn.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+class MemberSearchWhereTest {
+
+    @Test
+    void noCondition() {
+        MemberSearchWhere where = MemberSearchWhere.of(new MemberSearchCond());
+
+        assertThat(where.isAlwaysFalse()).isFalse();
+        assertThat(where.toArray()).isEmpty();
+    }
+
+    @Test
+    void contradictoryRange() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setAgeGoe(35);
+        cond.setAgeLoe(25);
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond);
+
+        assertThat(where.isAlwaysFalse()).isTrue();
+        assertThat(where.toArray()).isEmpty();
+    }
+
+    @Test
+    void equalRangeFoldsToEq() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setAgeGoe(30);
+        cond.setAgeLoe(30);
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond);
+
+        assertThat(where.toArray()).containsExactly(member.age.eq(30));
+    }
+
+    @Test
+    void rangeFoldsToBetween() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setAgeGoe(25);
+        cond.setAgeLoe(35);
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond);
+
+        assertThat(where.toArray()).containsExactly(member.age.between(25, 35));
+    }
+
+    @Test
+    void orderedBySelectivity() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setAgeGoe(25);
+        cond.setTeamName("teamA");
+        cond.setUsername("member1");
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond);
+
+        assertThat(where.toArray()).containsExactly(
+                member.username.eq("member1"),
+                team.name.eq("teamA"),
+                member.age.goe(25)
+        );
+    }
+
+    @Test
+    void foldedEqBeforeTeamName() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName("teamA");
+        cond.setAgeGoe(10);
+        cond.setAgeLoe(10);
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond);
+
+        assertThat(where.toArray()).containsExactly(
+                member.age.eq(10),
+                team.name.eq("teamA")
+        );
+    }
+
+    @Test
+    void teamNameResolvedToTeamId() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName("teamA");
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond, List.of(1L));
+
+        // member.team_id만 비교하므로 team 조인이 필요 없음
+        assertThat(where.toArray()).containsExactly(member.team.id.eq(1L));
+        assertThat(where.isTeamJoinRequired()).isFalse();
+        assertThat(MemberSearchWhere.of(cond).isTeamJoinRequired()).isTrue();
+    }
+
+    @Test
+    void teamNameResolvedToManyTeamIds() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName("teamA");
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond, List.of(1L, 2L));
+
+        assertThat(where.toArray()).containsExactly(member.team.id.in(List.of(1L, 2L)));
+    }
+
+    @Test
+    void unknownTeamName() {
+        MemberSearchCond cond = new MemberSearchCond();
+        cond.setTeamName("teamZ");
+
+        MemberSearchWhere where = MemberSearchWhere.of(cond, List.of());
+
+        assertThat(where.isAlwaysFalse()).isTrue();
+    }
+
+}
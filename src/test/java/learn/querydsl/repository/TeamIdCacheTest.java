@@ -0,0 +1,107 @@
+package learn.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.entity.Team;
+import learn.querydsl.monitor.QueryProfiler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+
+import static learn.querydsl.entity.QTeam.team;
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ 커밋/롤백 후의 캐시 상태를 확인해야 하므로 @Transactional을 붙이지 않고 트랜잭션을 직접 나눔
+ */
+@SpringBootTest
+class TeamIdCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamIdCache teamIdCache;
+
+    @Autowired
+    QueryProfiler queryProfiler;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void afterEach() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> queryFactory.delete(team).execute());
+        teamIdCache.clear(); // 벌크 삭제는 이벤트 리스너를 거치지 않음
+    }
+
+    @Test
+    void resolve() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamAId = tx.execute(status -> persist("teamA"));
+
+        assertThat(teamIdCache.resolve("teamA")).containsExactly(teamAId);
+        assertThat(teamIdCache.resolve("teamZ")).isEmpty(); // 없는 팀은 캐시하지 않음
+
+        // 같은 이름의 팀이 추가되면 커밋 후 캐시가 비워져서 새 팀도 포함됨
+        Long anotherTeamAId = tx.execute(status -> persist("teamA"));
+
+        assertThat(teamIdCache.resolve("teamA")).containsExactly(teamAId, anotherTeamAId);
+    }
+
+    @Test
+    void rolledBackTeamIsNotCached() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Long teamRId = persist("teamR");
+
+            // 변경한 트랜잭션 안에서는 커밋되지 않은 팀도 보이지만 캐시에 넣지 않음
+            assertThat(teamIdCache.resolve("teamR")).containsExactly(teamRId);
+
+            status.setRollbackOnly();
+        });
+
+        assertThat(teamIdCache.resolve("teamR")).isEmpty();
+    }
+
+    @Test
+    void deletedTeamIsEvictedAfterCommit() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamAId = tx.execute(status -> persist("teamA"));
+        assertThat(teamIdCache.resolve("teamA")).containsExactly(teamAId); // 캐시에 넣음
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Team.class, teamAId)));
+
+        assertThat(teamIdCache.resolve("teamA")).isEmpty();
+    }
+
+    @Test
+    void expiresAfterTtl() {
+        TeamIdCache noTtl = new TeamIdCache(queryFactory, queryProfiler, Duration.ZERO);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long teamAId = tx.execute(status -> persist("teamA"));
+        assertThat(teamIdCache.resolve("teamA")).containsExactly(teamAId);
+        assertThat(noTtl.resolve("teamA")).containsExactly(teamAId);
+
+        // 이벤트 리스너를 거치지 않은 변경 (다른 인스턴스에서 바꾼 것과 같음)
+        tx.executeWithoutResult(status -> em.createNativeQuery("update team set name = 'teamB' where team_id = " + teamAId).executeUpdate());
+
+        assertThat(teamIdCache.resolve("teamA")).containsExactly(teamAId); // ttl 안에서는 이전 값
+        assertThat(noTtl.resolve("teamA")).isEmpty(); // 만료되어 다시 조회
+    }
+
+    private Long persist(String name) {
+        Team team = new Team(name);
+        em.persist(team);
+        em.flush();
+        return team.getId();
+    }
+
+}
@@ -0,0 +1,115 @@
+package learn.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import learn.querydsl.dto.TeamStatsDto;
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static learn.querydsl.entity.QMember.member;
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TeamStatsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    Team teamA;
+    Team teamB;
+    Member member1;
+    Member member4;
+
+    @BeforeEach
+    void beforeEach() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        member1 = new Member("member1", 10, teamA);
+        member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(member4);
+        em.flush();
+    }
+
+    @Test
+    void insert() {
+        List<TeamStatsDto> result = teamStatsRepository.findAll();
+
+        assertThat(result).extracting("teamName", "memberCount", "ageAvg", "minAge", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 2L, 15.0, 10, 20),
+                        tuple("teamB", 2L, 35.0, 30, 40)
+                );
+    }
+
+    @Test
+    void changeTeam() {
+        member1.changeTeam(teamB);
+        em.flush();
+
+        List<TeamStatsDto> result = teamStatsRepository.findAll();
+
+        // teamA의 최솟값이었던 member1이 나갔으므로 teamA의 min은 다시 계산됨
+        assertThat(result).extracting("teamName", "memberCount", "minAge", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 1L, 20, 20),
+                        tuple("teamB", 3L, 10, 40)
+                );
+        assertThat(teamStatsRepository.findDrift()).isEmpty();
+    }
+
+    @Test
+    void delete() {
+        em.remove(member4);
+        em.flush();
+
+        List<TeamStatsDto> result = teamStatsRepository.findAll();
+
+        assertThat(result).extracting("teamName", "memberCount", "minAge", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 2L, 10, 20),
+                        tuple("teamB", 1L, 30, 30)
+                );
+        assertThat(teamStatsRepository.findDrift()).isEmpty();
+    }
+
+    @Test
+    void bulkUpdate_rebuild() {
+        // 벌크 연산은 리스너를 거치지 않으므로 통계가 어긋남
+        queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .execute();
+
+        assertThat(teamStatsRepository.findDrift()).containsExactlyInAnyOrder(teamA.getId(), teamB.getId());
+
+        teamStatsRepository.rebuild();
+
+        assertThat(teamStatsRepository.findDrift()).isEmpty();
+        assertThat(teamStatsRepository.findAll()).extracting("teamName", "minAge", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 11, 21),
+                        tuple("teamB", 31, 41)
+                );
+    }
+
+}
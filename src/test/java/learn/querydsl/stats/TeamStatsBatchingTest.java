@@ -0,0 +1,72 @@
+package learn.querydsl.stats;
+
+import learn.querydsl.dto.TeamStatsDto;
+import learn.querydsl.entity.Member;
+import learn.querydsl.entity.Team;
+import learn.querydsl.repository.TeamStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ perf 프로필처럼 JDBC 배치를 켠 상태에서 min/max 재계산이 배치에 남은 member 변경을 반영하는지 확인
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+@Transactional
+class TeamStatsBatchingTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Test
+    void leaveWithPendingBatch() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member3 = new Member("member3", 30, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(member3);
+        em.flush();
+
+        // 한 번의 flush에서 teamA의 최댓값(팀 변경)과 최솟값(삭제)이 모두 나감
+        member3.changeTeam(teamB);
+        em.remove(member1);
+        em.flush();
+
+        List<TeamStatsDto> result = teamStatsRepository.findAll();
+
+        assertThat(result).extracting("teamName", "memberCount", "minAge", "maxAge")
+                .containsExactly(
+                        tuple("teamA", 1L, 20, 20),
+                        tuple("teamB", 1L, 30, 30)
+                );
+        assertThat(teamStatsRepository.findDrift()).isEmpty();
+    }
+
+    @Test
+    void emptyTeamHasStatsRow() {
+        Team team = new Team("teamC");
+        em.persist(team);
+        em.flush();
+
+        assertThat(teamStatsRepository.findAll()).extracting("teamName", "memberCount", "minAge", "maxAge")
+                .containsExactly(tuple("teamC", 0L, null, null));
+    }
+
+}